@@ -3,6 +3,26 @@ import {AppConstants} from "../util/constants.js";
 import axios from "axios";
 import {toast} from "react-toastify";
 export const AppContext=createContext();
+
+// Access cookies last 15 minutes: on a 401, swap the refresh cookie for a new pair once and retry.
+// Concurrent 401s share one refresh, the refresh token is single use.
+let refreshing=null;
+axios.interceptors.response.use(response=>response, async (error)=>{
+    const original=error.config;
+    const url=original?.url || "";
+    if(error.response?.status!==401 || original._retried || url.endsWith("/refresh") || url.endsWith("/login")){
+        return Promise.reject(error);
+    }
+    original._retried=true;
+    refreshing=refreshing || axios.post(`${AppConstants.BACKEND_URL}/refresh`,null,{withCredentials:true})
+        .finally(()=>{refreshing=null;});
+    try{
+        await refreshing;
+    } catch {
+        return Promise.reject(error);
+    }
+    return axios(original);
+});
 export const AppContextProvider=(props)=>{
 
     axios.defaults.withCredentials=true;
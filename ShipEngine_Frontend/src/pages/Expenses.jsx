@@ -41,7 +41,7 @@ const Expenses = () => {
     const fetchExpenses = async () => {
         try {
             axios.defaults.withCredentials = true;
-            const response = await axios.get(`${backendURL}/shipments`);
+            const response = await axios.get(`${backendURL}/shipments`, { params: { unpaged: true } });
             if (response.status === 200) {
                 setExpenses(response.data);
             }
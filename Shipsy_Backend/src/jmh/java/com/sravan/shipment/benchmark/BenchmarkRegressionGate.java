@@ -0,0 +1,109 @@
+package com.sravan.shipment.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares a JMH JSON result with a baseline result and exits non-zero when any benchmark lost
+ * more than the allowed fraction of its throughput (or, for time-per-op modes, got that much
+ * slower) even at the favourable end of its error margin. Benchmarks missing from either side are
+ * listed but do not fail the gate.
+ *
+ * <p>Arguments: result file, baseline file, max regression (0.15 = 15%), update flag. With the
+ * update flag, or when no baseline exists yet, the result is copied to the baseline instead.
+ */
+public final class BenchmarkRegressionGate {
+
+    private BenchmarkRegressionGate() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path result = Path.of(args[0]);
+        Path baseline = Path.of(args[1]);
+        double maxRegression = Double.parseDouble(args[2]);
+        boolean update = args.length > 3 && Boolean.parseBoolean(args[3]);
+
+        if (!Files.exists(result)) {
+            System.out.println("No benchmark result at " + result + ", nothing to compare");
+            return;
+        }
+        ObjectMapper mapper = new ObjectMapper();
+        Map<String, Score> current = scores(mapper.readTree(result.toFile()));
+        if (current.isEmpty()) {
+            System.out.println("Benchmark result " + result + " is empty, nothing to compare");
+            return;
+        }
+        if (update || !Files.exists(baseline)) {
+            Files.copy(result, baseline, StandardCopyOption.REPLACE_EXISTING);
+            System.out.println("Recorded benchmark baseline " + baseline);
+            return;
+        }
+
+        Map<String, Score> base = scores(mapper.readTree(baseline.toFile()));
+
+        List<String> regressions = new ArrayList<>();
+        System.out.printf("%-90s %14s %14s %8s%n", "Benchmark", "baseline", "current", "change");
+        current.forEach((key, score) -> {
+            Score previous = base.get(key);
+            if (previous == null) {
+                System.out.printf("%-90s %14s %14.1f %8s%n", key, "-", score.value(), "new");
+                return;
+            }
+            // positive change is always an improvement
+            double change = score.higherIsBetter()
+                    ? (score.value() - previous.value()) / previous.value()
+                    : (previous.value() - score.value()) / previous.value();
+            // judged on the most favourable end of the current run's confidence interval, so noise alone does not fail the build
+            double bestCase = score.higherIsBetter()
+                    ? (score.value() + score.error() - previous.value()) / previous.value()
+                    : (previous.value() - score.value() + score.error()) / previous.value();
+            System.out.printf("%-90s %14.1f %14.1f %+7.1f%%%n", key, previous.value(), score.value(), change * 100);
+            if (bestCase < -maxRegression) {
+                regressions.add(String.format("%s: %.1f -> %.1f %s (%.1f%%)",
+                        key, previous.value(), score.value(), score.unit(), change * 100));
+            }
+        });
+        base.keySet().stream().filter(key -> !current.containsKey(key))
+                .forEach(key -> System.out.printf("%-90s %14.1f %14s %8s%n", key, base.get(key).value(), "-", "missing"));
+
+        if (!regressions.isEmpty()) {
+            System.err.printf("%d benchmark(s) regressed by more than %.0f%%:%n", regressions.size(), maxRegression * 100);
+            regressions.forEach(line -> System.err.println("  " + line));
+            System.exit(1);
+        }
+        System.out.printf("No benchmark regressed by more than %.0f%%%n", maxRegression * 100);
+    }
+
+    private static Map<String, Score> scores(JsonNode runs) {
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (JsonNode run : runs) {
+            StringBuilder key = new StringBuilder(run.get("benchmark").asText());
+            JsonNode params = run.get("params");
+            if (params != null) {
+                List<String> pairs = new ArrayList<>();
+                Iterator<Map.Entry<String, JsonNode>> fields = params.fields();
+                fields.forEachRemaining(field -> pairs.add(field.getKey() + "=" + field.getValue().asText()));
+                key.append(pairs);
+            }
+            JsonNode metric = run.get("primaryMetric");
+            String unit = metric.get("scoreUnit").asText();
+            double error = metric.path("scoreError").asDouble(0);
+            scores.put(key.toString(), new Score(metric.get("score").asDouble(), Double.isNaN(error) ? 0 : error,
+                    unit, unit.startsWith("ops/")));
+        }
+        return scores;
+    }
+
+    private record Score(double value, double error, String unit, boolean higherIsBetter) {
+    }
+}
@@ -0,0 +1,52 @@
+package com.sravan.shipment.benchmark;
+
+import com.sravan.shipment.entity.ShipmentEntity;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Deterministic shipment rows shared by the benchmarks
+final class BenchmarkShipments {
+
+    static final String USER = "bench-user@example.com";
+
+    private static final String[] WORDS = {
+            "fragile", "pallet", "container", "express", "refrigerated", "documents", "electronics",
+            "furniture", "textiles", "machinery", "chemicals", "perishable", "customs", "priority"
+    };
+    private static final String[] TYPES = {"AIR", "SEA", "ROAD", "RAIL"};
+
+    private BenchmarkShipments() {
+    }
+
+    static List<ShipmentEntity> generate(int count) {
+        Random random = new Random(42);
+        List<ShipmentEntity> rows = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            rows.add(ShipmentEntity.builder()
+                    .id(id)
+                    .userId(USER)
+                    .shipmentTitle(sentence(random, 3))
+                    .shipmentDescription(sentence(random, 12))
+                    .shipmentType(TYPES[random.nextInt(TYPES.length)])
+                    .delivered(random.nextBoolean())
+                    .cost(random.nextInt(100_000) / 100.0)
+                    .shipmentDate(LocalDate.of(2024, 1, 1).plusDays(random.nextInt(365)))
+                    .build());
+        }
+        return rows;
+    }
+
+    private static String sentence(Random random, int words) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                sb.append(' ');
+            }
+            sb.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sb.toString();
+    }
+}
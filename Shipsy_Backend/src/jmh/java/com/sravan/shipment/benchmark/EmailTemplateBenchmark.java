@@ -0,0 +1,58 @@
+package com.sravan.shipment.benchmark;
+
+import com.sravan.shipment.authentication.service.EmailTemplateRenderer;
+import org.openjdk.jmh.annotations.*;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-send cost of the OTP mail body: a full Thymeleaf render (with the template cache on, as in
+ * production) against the precompiled fragments of EmailTemplateRenderer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmailTemplateBenchmark {
+
+    @Param({EmailTemplateRenderer.VERIFY_EMAIL, EmailTemplateRenderer.PASSWORD_RESET_EMAIL})
+    private String template;
+
+    private EmailTemplateRenderer renderer;
+    private int counter;
+
+    @Setup
+    public void setUp() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCacheable(true);
+        SpringTemplateEngine engine = new SpringTemplateEngine();
+        engine.setTemplateResolver(resolver);
+
+        renderer = new EmailTemplateRenderer(engine, true);
+        renderer.compile();
+    }
+
+    @Benchmark
+    public String thymeleaf() {
+        int n = counter++;
+        return renderer.renderWithThymeleaf(template, "user" + n + "@example.com", otp(n));
+    }
+
+    @Benchmark
+    public String precompiled() {
+        int n = counter++;
+        return renderer.render(template, "user" + n + "@example.com", otp(n));
+    }
+
+    private static String otp(int n) {
+        return String.valueOf(100000 + (n & 0xFFFF));
+    }
+}
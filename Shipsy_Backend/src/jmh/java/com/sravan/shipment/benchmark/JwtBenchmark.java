@@ -0,0 +1,54 @@
+package com.sravan.shipment.benchmark;
+
+import com.sravan.shipment.authentication.security.AuthenticatedUser;
+import com.sravan.shipment.authentication.security.TokenPair;
+import com.sravan.shipment.authentication.util.JwtUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Access and refresh token issue on login or refresh, and the full parse, signature check and claim validation a request pays
+ * on a verified-token cache miss.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    static final String SECRET = "thisisthelongestkeyieverusedinmydevelopmentcareer";
+    static final AuthenticatedUser USER = new AuthenticatedUser("bench-user-id", BenchmarkShipments.USER, 0, null);
+
+    private JwtUtil jwtUtil;
+    private AuthenticatedUser user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = jwtUtil();
+        user = USER.withPassword("{noop}secret");
+        token = jwtUtil.generateTokens(user).accessToken();
+    }
+
+    @Benchmark
+    public TokenPair generateTokens() {
+        return jwtUtil.generateTokens(user);
+    }
+
+    @Benchmark
+    public Boolean validateToken() {
+        return jwtUtil.validateToken(token, user);
+    }
+
+    static JwtUtil jwtUtil() {
+        JwtUtil jwtUtil = new JwtUtil(new SimpleMeterRegistry(), Duration.ofMinutes(15), Duration.ofDays(7));
+        ReflectionTestUtils.setField(jwtUtil, "SECRET_KEY", SECRET);
+        return jwtUtil;
+    }
+}
@@ -0,0 +1,112 @@
+package com.sravan.shipment.benchmark;
+
+import com.sravan.shipment.authentication.cache.TokenVersionCache;
+import com.sravan.shipment.authentication.cache.VerifiedTokenCache;
+import com.sravan.shipment.authentication.entity.UserEntity;
+import com.sravan.shipment.authentication.filter.JwtRequestFilter;
+import com.sravan.shipment.authentication.repository.UserRepository;
+import com.sravan.shipment.authentication.revocation.InMemoryRevocationStore;
+import com.sravan.shipment.authentication.revocation.TokenRevocationList;
+import com.sravan.shipment.authentication.service.AppUserDetailsService;
+import com.sravan.shipment.authentication.util.JwtUtil;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.Date;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JwtRequestFilter.doFilterInternal for an authenticated GET /shipments with a no-op chain, with
+ * the verified-token cache warm (hit) and with every entry expiring at once (miss: parse and
+ * verify). A miss on a token with the userId claim builds the principal from the claims; a legacy
+ * token without it still loads the user. The lookups are in-memory stubs, so database time is
+ * excluded; the token version is served from its cache in both cases, and the session is checked
+ * against a revocation list holding 10k other revoked sessions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtRequestFilterBenchmark {
+
+    @Param({"hit", "miss"})
+    private String cache;
+
+    @Param({"claims", "legacy"})
+    private String token;
+
+    private JwtRequestFilter filter;
+    private String authorization;
+
+    @Setup
+    public void setUp() {
+        JwtUtil jwtUtil = JwtBenchmark.jwtUtil();
+        authorization = "Bearer " + (token.equals("claims") ? jwtUtil.generateTokens(JwtBenchmark.USER).accessToken() : legacyToken());
+
+        UserEntity user = UserEntity.builder()
+                .userId(JwtBenchmark.USER.getUserId())
+                .email(BenchmarkShipments.USER)
+                .password("{noop}secret")
+                .build();
+        UserRepository users = (UserRepository) Proxy.newProxyInstance(UserRepository.class.getClassLoader(),
+                new Class<?>[]{UserRepository.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("findByEmail")) {
+                        return Optional.of(user).filter(u -> u.getEmail().equals(args[0]));
+                    }
+                    if (method.getName().equals("findTokenVersionByUserId")) {
+                        return Optional.of(user).filter(u -> u.getUserId().equals(args[0])).map(UserEntity::getTokenVersion);
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+
+        Duration ttl = cache.equals("hit") ? Duration.ofMinutes(5) : Duration.ZERO;
+        VerifiedTokenCache tokenCache = new VerifiedTokenCache(new SimpleMeterRegistry(), 10_000, ttl);
+        TokenVersionCache versionCache = new TokenVersionCache(users, new SimpleMeterRegistry(), 10_000, Duration.ofMinutes(5));
+        TokenRevocationList revocations = new TokenRevocationList(new InMemoryRevocationStore(), new SimpleMeterRegistry(),
+                16, 100_000, 0.01, Duration.ofSeconds(30));
+        long expiresAt = System.currentTimeMillis() + Duration.ofDays(7).toMillis();
+        for (int i = 0; i < 10_000; i++) {
+            revocations.revokeSession(UUID.randomUUID().toString(), expiresAt);
+        }
+        filter = new JwtRequestFilter(new AppUserDetailsService(users), jwtUtil, tokenCache, versionCache, revocations,
+                new SimpleMeterRegistry());
+    }
+
+    @Benchmark
+    public Object doFilter() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/shipments");
+        request.setServletPath("/shipments");
+        request.addHeader("Authorization", authorization);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = new MockFilterChain();
+        try {
+            filter.doFilter(request, response, chain);
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    // A token as issued before the userId and version claims were added
+    private static String legacyToken() {
+        return Jwts.builder()
+                .setSubject(BenchmarkShipments.USER)
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 60 * 60 * 1000))
+                .signWith(SignatureAlgorithm.HS256, JwtBenchmark.SECRET)
+                .compact();
+    }
+}
@@ -0,0 +1,91 @@
+package com.sravan.shipment.benchmark;
+
+import com.sravan.shipment.entity.ShipmentEntity;
+import com.sravan.shipment.search.InMemoryShipmentSearchBackend;
+import com.sravan.shipment.search.SearchCriteria;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process inverted index against the LIKE '%kw%' path, which lowercases and scans the title and
+ * description of every one of the user's rows on each call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KeywordSearchBenchmark {
+
+    private static final String USER = "bench-user";
+    private static final String[] WORDS = {
+            "fragile", "pallet", "container", "express", "refrigerated", "documents", "electronics",
+            "furniture", "textiles", "machinery", "chemicals", "perishable", "customs", "priority",
+            "bulk", "oversized", "insured", "return", "sample", "hazmat"
+    };
+
+    @Param({"10000", "100000"})
+    private int shipments;
+
+    @Param({"refrigerated", "contain"})
+    private String keyword;
+
+    private List<ShipmentEntity> rows;
+    private InMemoryShipmentSearchBackend index;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        rows = new ArrayList<>(shipments);
+        for (long id = 1; id <= shipments; id++) {
+            rows.add(ShipmentEntity.builder()
+                    .id(id)
+                    .userId(USER)
+                    .shipmentTitle(sentence(random, 3))
+                    .shipmentDescription(sentence(random, 25))
+                    .shipmentType("AIR")
+                    .cost(random.nextInt(1000) + 1)
+                    .shipmentDate(LocalDate.of(2024, 1, 1).plusDays(random.nextInt(365)))
+                    .build());
+        }
+        index = new InMemoryShipmentSearchBackend(null, new SimpleMeterRegistry(), shipments, Duration.ofHours(1));
+        index.rebuild(USER, rows);
+    }
+
+    @Benchmark
+    public List<Long> invertedIndex() {
+        return index.search(USER, keyword, SearchCriteria.NONE, 1000);
+    }
+
+    @Benchmark
+    public List<Long> likeScan() {
+        String pattern = keyword.toLowerCase();
+        List<Long> matches = new ArrayList<>();
+        for (ShipmentEntity row : rows) {
+            if (row.getShipmentTitle().toLowerCase().contains(pattern)
+                    || row.getShipmentDescription().toLowerCase().contains(pattern)) {
+                matches.add(row.getId());
+            }
+        }
+        return matches;
+    }
+
+    private static String sentence(Random random, int words) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                sb.append(' ');
+            }
+            sb.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,73 @@
+package com.sravan.shipment.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sravan.shipment.authentication.filter.RateLimitFilter;
+import com.sravan.shipment.authentication.ratelimit.RateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RateLimitFilter on the allowed path against the bare chain, for POST /login (body parsed for the
+ * email, IP and email buckets) and a request on an unlimited route. The limits are set so high
+ * that no request is ever rejected; requests cycle through 1024 emails so bucket lookups miss
+ * the CPU cache as they would in production.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RateLimitFilterBenchmark {
+
+    private static final String UNLIMITED = "ip:1000000000/1s,email:1000000000/1s";
+    private static final int EMAILS = 1024;
+
+    @Param({"/login", "/shipments"})
+    private String path;
+
+    private RateLimitFilter filter;
+    private byte[][] bodies;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        RateLimiter rateLimiter = new RateLimiter(new SimpleMeterRegistry(), 100_000, Duration.ofMinutes(10));
+        filter = new RateLimitFilter(rateLimiter, new ObjectMapper(), new SimpleMeterRegistry(), true,
+                UNLIMITED, UNLIMITED, UNLIMITED, UNLIMITED, UNLIMITED);
+        bodies = new byte[EMAILS][];
+        for (int i = 0; i < EMAILS; i++) {
+            bodies[i] = ("{\"email\":\"user" + i + "@example.com\",\"password\":\"secret\"}").getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    @Benchmark
+    public int withoutFilter() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        new MockFilterChain().doFilter(request(), response);
+        return response.getStatus();
+    }
+
+    @Benchmark
+    public int withFilter() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(), response, new MockFilterChain());
+        return response.getStatus();
+    }
+
+    private MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        request.setServletPath(path);
+        request.setRemoteAddr("10.0.0." + (next & 0xff));
+        request.setContentType("application/json");
+        request.setContent(bodies[next++ & (EMAILS - 1)]);
+        return request;
+    }
+}
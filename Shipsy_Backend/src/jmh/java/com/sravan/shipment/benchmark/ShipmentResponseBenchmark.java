@@ -0,0 +1,92 @@
+package com.sravan.shipment.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sravan.shipment.dto.ShipmentResponse;
+import com.sravan.shipment.entity.ShipmentEntity;
+import com.sravan.shipment.service.ShipmentServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * The response side of GET /shipments: entity to DTO mapping, the in-memory date sort that
+ * getAllShipments used before the listing was ordered by the database, and Jackson serialization of
+ * the resulting list with the ObjectMapper settings Spring Boot applies.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ShipmentResponseBenchmark {
+
+    @Param({"100", "1000"})
+    private int shipments;
+
+    private MethodHandle convertToResponse;
+    private ShipmentServiceImpl service;
+    private List<ShipmentEntity> rows;
+    private List<ShipmentEntity> rowsInListingOrder;
+    private List<ShipmentResponse> responses;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() throws Throwable {
+        // convertToResponse is private and touches no collaborators, so a bare instance is enough
+        convertToResponse = MethodHandles.privateLookupIn(ShipmentServiceImpl.class, MethodHandles.lookup())
+                .findVirtual(ShipmentServiceImpl.class, "convertToResponse",
+                        MethodType.methodType(ShipmentResponse.class, ShipmentEntity.class));
+        service = new ShipmentServiceImpl(null, null, null, null, null, null, null, null, null, new SimpleMeterRegistry());
+
+        rows = BenchmarkShipments.generate(shipments);
+        rowsInListingOrder = new ArrayList<>(rows);
+        rowsInListingOrder.sort(Comparator.comparing(ShipmentEntity::getShipmentDate)
+                .thenComparing(ShipmentEntity::getId).reversed());
+        responses = mapAll(rows);
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    }
+
+    @Benchmark
+    public ShipmentResponse convertToResponse() throws Throwable {
+        return (ShipmentResponse) convertToResponse.invokeExact(service, rows.get(0));
+    }
+
+    // getAllShipments before the listing was ordered by the database
+    @Benchmark
+    public List<ShipmentResponse> getAllShipmentsInMemorySort() throws Throwable {
+        List<ShipmentResponse> mapped = mapAll(rows);
+        return mapped.stream()
+                .sorted(Comparator.comparing(ShipmentResponse::getShipmentDate).reversed())
+                .collect(Collectors.toList());
+    }
+
+    // getAllShipments now: rows arrive in listing order and are only mapped
+    @Benchmark
+    public List<ShipmentResponse> getAllShipmentsPreSorted() throws Throwable {
+        return mapAll(rowsInListingOrder);
+    }
+
+    @Benchmark
+    public byte[] serializeResponses() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(responses);
+    }
+
+    private List<ShipmentResponse> mapAll(List<ShipmentEntity> entities) throws Throwable {
+        List<ShipmentResponse> mapped = new ArrayList<>(entities.size());
+        for (ShipmentEntity entity : entities) {
+            mapped.add((ShipmentResponse) convertToResponse.invokeExact(service, entity));
+        }
+        return mapped;
+    }
+}
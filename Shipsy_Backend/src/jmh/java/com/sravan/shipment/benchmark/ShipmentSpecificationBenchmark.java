@@ -0,0 +1,82 @@
+package com.sravan.shipment.benchmark;
+
+import com.sravan.shipment.entity.ShipmentEntity;
+import com.sravan.shipment.specification.ShipmentSpecification;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Criteria predicate construction for the shipment filters, composed the way
+ * ShipmentServiceImpl.filterShipments and getShipmentsPage compose them. Hibernate is booted
+ * without a database, only its CriteriaBuilder is used.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ShipmentSpecificationBenchmark {
+
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+    private static final LocalDate END = LocalDate.of(2024, 12, 31);
+
+    private SessionFactory sessionFactory;
+    private CriteriaBuilder cb;
+
+    @Setup
+    public void setUp() {
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(ShipmentEntity.class)
+                .setProperty("hibernate.dialect", "org.hibernate.dialect.MySQLDialect")
+                .setProperty("hibernate.boot.allow_jdbc_metadata_access", "false")
+                .setProperty("hibernate.connection.provider_class",
+                        "org.hibernate.engine.jdbc.connections.internal.UserSuppliedConnectionProviderImpl")
+                .buildSessionFactory();
+        cb = sessionFactory.getCriteriaBuilder();
+    }
+
+    @TearDown
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public Predicate userOnly() {
+        return toPredicate(Specification.where(ShipmentSpecification.hasUserId(BenchmarkShipments.USER)));
+    }
+
+    @Benchmark
+    public Predicate allFilters() {
+        Specification<ShipmentEntity> spec = Specification.where(ShipmentSpecification.hasUserId(BenchmarkShipments.USER));
+        spec = spec.and(ShipmentSpecification.hasShipmentType("AIR"));
+        spec = spec.and(ShipmentSpecification.dateAfter(START));
+        spec = spec.and(ShipmentSpecification.dateBefore(END));
+        spec = spec.and(ShipmentSpecification.costGTE(10.0));
+        spec = spec.and(ShipmentSpecification.costLTE(500.0));
+        spec = spec.and(ShipmentSpecification.titleOrDescContains("Fragile"));
+        return toPredicate(spec);
+    }
+
+    @Benchmark
+    public Predicate keysetPage() {
+        Specification<ShipmentEntity> spec = Specification.where(ShipmentSpecification.hasUserId(BenchmarkShipments.USER))
+                .and(ShipmentSpecification.before(END, 12345L));
+        return toPredicate(spec);
+    }
+
+    private Predicate toPredicate(Specification<ShipmentEntity> spec) {
+        CriteriaQuery<ShipmentEntity> query = cb.createQuery(ShipmentEntity.class);
+        Root<ShipmentEntity> root = query.from(ShipmentEntity.class);
+        return spec.toPredicate(root, query, cb);
+    }
+}
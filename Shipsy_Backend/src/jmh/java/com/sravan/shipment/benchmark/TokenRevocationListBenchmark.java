@@ -0,0 +1,70 @@
+package com.sravan.shipment.benchmark;
+
+import com.sravan.shipment.authentication.revocation.InMemoryRevocationStore;
+import com.sravan.shipment.authentication.revocation.TokenRevocationList;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The per-request session revocation check: the sharded Bloom filter list against a plain
+ * concurrent set, for a live session (the common case) and a revoked one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenRevocationListBenchmark {
+
+    @Param({"10000", "1000000"})
+    private int revoked;
+
+    private TokenRevocationList list;
+    private Set<String> set;
+    private String[] liveSessions;
+    private String[] revokedSessions;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        list = new TokenRevocationList(new InMemoryRevocationStore(), new SimpleMeterRegistry(),
+                16, revoked, 0.01, Duration.ofSeconds(30));
+        set = ConcurrentHashMap.newKeySet();
+        long expiresAt = System.currentTimeMillis() + Duration.ofDays(7).toMillis();
+        revokedSessions = new String[1024];
+        for (int i = 0; i < revoked; i++) {
+            String id = UUID.randomUUID().toString();
+            list.revokeSession(id, expiresAt);
+            set.add(id);
+            if (i < revokedSessions.length) {
+                revokedSessions[i] = id;
+            }
+        }
+        liveSessions = new String[1024];
+        for (int i = 0; i < liveSessions.length; i++) {
+            liveSessions[i] = UUID.randomUUID().toString();
+        }
+    }
+
+    @Benchmark
+    public boolean bloomLive() {
+        return list.isSessionRevoked(liveSessions[next++ & 1023]);
+    }
+
+    @Benchmark
+    public boolean bloomRevoked() {
+        return list.isSessionRevoked(revokedSessions[next++ & 1023]);
+    }
+
+    @Benchmark
+    public boolean setLive() {
+        return set.contains(liveSessions[next++ & 1023]);
+    }
+}
@@ -0,0 +1,422 @@
+package com.sravan.shipment.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sravan.shipment.ShipmentApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * End-to-end load test on one box: boots ShipmentApplication against in-memory H2 in MySQL mode with
+ * a FakeSmtpServer as the mail relay, seeds users and shipments through the API, then drives a
+ * weighted mix of requests from concurrent clients and reports latency percentiles and throughput
+ * per endpoint. Results are written as JSON and can be compared with an earlier run.
+ *
+ * <p>Settings are system properties (loadtest.users, loadtest.shipments, loadtest.clients,
+ * loadtest.warmup, loadtest.duration, loadtest.mix, loadtest.smtp-delay, loadtest.label,
+ * loadtest.output, loadtest.baseline). Program arguments go to Spring, e.g.
+ * --spring.threads.virtual.enabled=true.
+ *
+ * <p>loadtest.idle-connections and loadtest.slow-readers add SlowClients next to the mix during the
+ * measured window, polling every loadtest.idle-poll-interval and reading at loadtest.slow-read-rate
+ * bytes per second. The report then includes the server's peak platform threads and heap, which is
+ * what differs between the platform and virtual thread runs.
+ */
+public final class LoadTestRunner {
+
+    private static final String DEFAULT_MIX =
+            "login:5,list:30,get:10,filter:15,create:10,update:10,delete:5,otp:5,profile:10";
+    private static final String[] TYPES = {"AIR", "SEA", "ROAD", "RAIL"};
+    private static final String[] WORDS = {"fragile", "pallet", "container", "express", "refrigerated",
+            "documents", "electronics", "furniture", "textiles", "machinery", "customs", "priority"};
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient http = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    private final String baseUrl;
+    private final Map<String, Integer> mix;
+    private final int totalWeight;
+    private volatile LatencyStats stats = new LatencyStats();
+
+    private LoadTestRunner(String baseUrl, Map<String, Integer> mix) {
+        this.baseUrl = baseUrl;
+        this.mix = mix;
+        this.totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    public static void main(String[] args) throws Exception {
+        int users = Integer.getInteger("loadtest.users", 20);
+        int shipments = Integer.getInteger("loadtest.shipments", 500);
+        int clients = Integer.getInteger("loadtest.clients", 32);
+        Duration warmup = duration("loadtest.warmup", "20s");
+        Duration measure = duration("loadtest.duration", "60s");
+        Duration smtpDelay = duration("loadtest.smtp-delay", "50ms");
+        Map<String, Integer> mix = parseMix(System.getProperty("loadtest.mix", DEFAULT_MIX));
+        int idleConnections = Integer.getInteger("loadtest.idle-connections", 0);
+        Duration idlePollInterval = duration("loadtest.idle-poll-interval", "10s");
+        int slowReaders = Integer.getInteger("loadtest.slow-readers", 0);
+        int slowReadRate = Integer.getInteger("loadtest.slow-read-rate", 16384);
+
+        try (FakeSmtpServer smtp = new FakeSmtpServer(smtpDelay);
+             ConfigurableApplicationContext app = boot(smtp.getPort(), args)) {
+            String port = app.getEnvironment().getProperty("local.server.port");
+            LoadTestRunner runner = new LoadTestRunner("http://localhost:" + port + "/api", mix);
+
+            System.out.printf("Seeding %d users x %d shipments%n", users, shipments);
+            List<VirtualUser> seeded = runner.seed(users, shipments);
+
+            System.out.printf("Warming up for %s with %d clients%n", warmup, clients);
+            runner.drive(seeded, clients, warmup);
+            runner.stats = new LatencyStats();
+            ServerResources.reset();
+            System.out.printf("Measuring for %s with %d clients, mix %s, %d idle connections, %d slow readers%n",
+                    measure, clients, mix, idleConnections, slowReaders);
+            SlowClients slow = new SlowClients("localhost", Integer.parseInt(port), "/api");
+            try (slow) {
+                slow.start(seeded.stream().map(user -> user.token).toList(), idleConnections, idlePollInterval,
+                        slowReaders, slowReadRate, System.nanoTime() + measure.toNanos(), () -> runner.stats);
+                runner.drive(seeded, clients, measure);
+            }
+            Map<String, Object> server = ServerResources.snapshot();
+            server.put("peakSlowClientConnections", slow.getPeakConnections());
+
+            Map<String, LatencyStats.Summary> summary = runner.stats.summarize(measure.toMillis() / 1000.0);
+            printReport(summary);
+            System.out.printf("Fake SMTP accepted %d messages%n", smtp.getMessages());
+            System.out.printf("Server: %s%n", server);
+
+            Map<String, Object> settings = new LinkedHashMap<>();
+            settings.put("users", users);
+            settings.put("shipments", shipments);
+            settings.put("clients", clients);
+            settings.put("warmup", warmup.toString());
+            settings.put("duration", measure.toString());
+            settings.put("mix", mix);
+            settings.put("smtpDelay", smtpDelay.toString());
+            settings.put("idleConnections", idleConnections);
+            settings.put("idlePollInterval", idlePollInterval.toString());
+            settings.put("slowReaders", slowReaders);
+            settings.put("slowReadRate", slowReadRate);
+            settings.put("springArgs", List.of(args));
+            runner.writeResult(summary, settings, server);
+        }
+    }
+
+    private static ConfigurableApplicationContext boot(int smtpPort, String[] args) {
+        // System properties rank above application.properties and below the program arguments,
+        // and unlike SpringApplication default properties they also reach the logging system
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("spring.datasource.url", "jdbc:h2:mem:loadtest;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE");
+        properties.put("spring.datasource.username", "sa");
+        properties.put("spring.datasource.password", "");
+        properties.put("spring.mail.host", "127.0.0.1");
+        properties.put("spring.mail.port", String.valueOf(smtpPort));
+        properties.put("spring.mail.properties.mail.smtp.auth", "false");
+        properties.put("spring.mail.properties.mail.smtp.starttls.enable", "false");
+        properties.put("mail.outbox.poll-interval-ms", "1000");
+        properties.put("server.port", "0");
+        // every client logs in from the same address and sends OTPs far above the per-user limits
+        properties.put("rate-limit.enabled", "false");
+        properties.put("logging.level.root", "WARN");
+        // devtools would restart the context in a second class loader
+        properties.put("spring.devtools.restart.enabled", "false");
+        properties.forEach(System::setProperty);
+        return new SpringApplicationBuilder(ShipmentApplication.class).run(args);
+    }
+
+    private List<VirtualUser> seed(int users, int shipmentsPerUser) throws Exception {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<VirtualUser>> futures = new ArrayList<>();
+            for (int i = 0; i < users; i++) {
+                int index = i;
+                futures.add(executor.submit(() -> seedUser(index, shipmentsPerUser)));
+            }
+            List<VirtualUser> seeded = new ArrayList<>();
+            for (Future<VirtualUser> future : futures) {
+                seeded.add(future.get());
+            }
+            return seeded;
+        }
+    }
+
+    private VirtualUser seedUser(int index, int shipments) throws IOException, InterruptedException {
+        VirtualUser user = new VirtualUser("load-user-" + index + "@example.com", "load-password-" + index);
+        expectOk(send(null, "POST", "/register", json(Map.of("name", "Load User " + index,
+                "email", user.email, "password", user.password))));
+        login(user, null);
+
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < shipments; i++) {
+            ndjson.append(objectMapper.writeValueAsString(randomShipment())).append('\n');
+        }
+        expectOk(http.send(request(user, "/shipments/import")
+                .header("Content-Type", "application/x-ndjson")
+                .POST(HttpRequest.BodyPublishers.ofString(ndjson.toString()))
+                .build(), HttpResponse.BodyHandlers.ofString()));
+
+        JsonNode all = objectMapper.readTree(expectOk(http.send(request(user, "/shipments?unpaged=true").GET().build(),
+                HttpResponse.BodyHandlers.ofString())).body());
+        for (JsonNode shipment : all) {
+            user.addId(shipment.get("id").asLong());
+        }
+        return user;
+    }
+
+    private void drive(List<VirtualUser> users, int clients, Duration duration) throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < clients; i++) {
+                VirtualUser user = users.get(i % users.size());
+                futures.add(executor.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        step(user, pickOperation());
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+    }
+
+    private String pickOperation() {
+        int roll = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Map.Entry<String, Integer> entry : mix.entrySet()) {
+            roll -= entry.getValue();
+            if (roll < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("empty mix");
+    }
+
+    private void step(VirtualUser user, String operation) throws IOException, InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        switch (operation) {
+            case "login" -> login(user, "POST /login");
+            case "list" -> send(user, "GET /shipments", "GET", "/shipments?size=20", null);
+            case "get" -> {
+                Long id = user.randomId(false);
+                if (id != null) {
+                    send(user, "GET /shipments/{id}", "GET", "/shipments/" + id, null);
+                }
+            }
+            case "filter" -> {
+                Map<String, Object> filter = new LinkedHashMap<>();
+                filter.put("shipmentType", TYPES[random.nextInt(TYPES.length)]);
+                filter.put("minCost", (double) random.nextInt(500));
+                if (random.nextInt(4) == 0) {
+                    filter.put("keyword", WORDS[random.nextInt(WORDS.length)]);
+                }
+                send(user, "POST /shipments/filter", "POST", "/shipments/filter", json(filter));
+            }
+            case "create" -> {
+                HttpResponse<String> response = send(user, "POST /shipments", "POST", "/shipments", json(randomShipment()));
+                if (response != null && response.statusCode() == 200) {
+                    user.addId(objectMapper.readTree(response.body()).get("id").asLong());
+                }
+            }
+            case "update" -> {
+                Long id = user.randomId(false);
+                if (id != null) {
+                    send(user, "PUT /shipments/{id}", "PUT", "/shipments/" + id, json(randomShipment()));
+                }
+            }
+            case "delete" -> {
+                Long id = user.randomId(true);
+                if (id != null) {
+                    send(user, "DELETE /shipments/{id}", "DELETE", "/shipments/" + id, null);
+                }
+            }
+            case "otp" -> send(user, "POST /send-otp", "POST", "/send-otp", "");
+            case "profile" -> send(user, "GET /profile", "GET", "/profile", null);
+            default -> throw new IllegalArgumentException("Unknown operation in loadtest.mix: " + operation);
+        }
+    }
+
+    private void login(VirtualUser user, String endpoint) throws IOException, InterruptedException {
+        HttpResponse<String> response = send(null, endpoint, "POST", "/login",
+                json(Map.of("email", user.email, "password", user.password)));
+        if (response != null && response.statusCode() == 200) {
+            user.token = objectMapper.readTree(response.body()).get("token").asText();
+        } else if (endpoint == null) {
+            throw new IllegalStateException("Seed login failed for " + user.email);
+        }
+    }
+
+    // Sends and records under the endpoint label; an unlabelled call (seeding) is not recorded
+    private HttpResponse<String> send(VirtualUser user, String endpoint, String method, String path, String body)
+            throws InterruptedException {
+        HttpRequest request = request(user, path)
+                .header("Content-Type", "application/json")
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        long started = System.nanoTime();
+        try {
+            HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+            if (endpoint != null) {
+                stats.record(endpoint, System.nanoTime() - started, response.statusCode() / 100 == 2);
+            }
+            return response;
+        } catch (IOException e) {
+            if (endpoint != null) {
+                stats.record(endpoint, System.nanoTime() - started, false);
+            }
+            return null;
+        }
+    }
+
+    private HttpResponse<String> send(VirtualUser user, String method, String path, String body) throws InterruptedException {
+        return send(user, null, method, path, body);
+    }
+
+    private HttpRequest.Builder request(VirtualUser user, String path) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(60));
+        if (user != null && user.token != null) {
+            builder.header("Authorization", "Bearer " + user.token);
+        }
+        return builder;
+    }
+
+    private Map<String, Object> randomShipment() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Map<String, Object> shipment = new LinkedHashMap<>();
+        shipment.put("shipmentTitle", WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]);
+        shipment.put("shipmentDescription", WORDS[random.nextInt(WORDS.length)] + " goods for " + WORDS[random.nextInt(WORDS.length)]);
+        shipment.put("shipmentType", TYPES[random.nextInt(TYPES.length)]);
+        shipment.put("delivered", random.nextBoolean());
+        shipment.put("cost", random.nextInt(100_000) / 100.0);
+        shipment.put("shipmentDate", LocalDate.of(2024, 1, 1).plusDays(random.nextInt(365)).toString());
+        return shipment;
+    }
+
+    private String json(Object value) throws IOException {
+        return objectMapper.writeValueAsString(value);
+    }
+
+    private static HttpResponse<String> expectOk(HttpResponse<String> response) {
+        if (response == null || response.statusCode() / 100 != 2) {
+            throw new IllegalStateException("Seeding request failed: " + (response == null ? "no response"
+                    : response.statusCode() + " " + response.body()));
+        }
+        return response;
+    }
+
+    private static void printReport(Map<String, LatencyStats.Summary> summary) {
+        System.out.printf("%n%-26s %9s %7s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms");
+        long requests = 0;
+        double throughput = 0;
+        for (Map.Entry<String, LatencyStats.Summary> entry : summary.entrySet()) {
+            LatencyStats.Summary s = entry.getValue();
+            System.out.printf("%-26s %9d %7d %9.1f %9.1f %9.1f %9.1f %9.1f%n", entry.getKey(),
+                    s.requests(), s.errors(), s.throughput(), s.p50Millis(), s.p95Millis(), s.p99Millis(), s.maxMillis());
+            requests += s.requests();
+            throughput += s.throughput();
+        }
+        System.out.printf("%-26s %9d %7s %9.1f%n%n", "total", requests, "", throughput);
+    }
+
+    private void writeResult(Map<String, LatencyStats.Summary> summary, Map<String, Object> settings,
+                             Map<String, Object> server) throws IOException {
+        String label = System.getProperty("loadtest.label", "run");
+        Path output = Path.of(System.getProperty("loadtest.output", "target/loadtest"));
+        Files.createDirectories(output);
+        Path file = output.resolve(label + "-" + Instant.now().toEpochMilli() + ".json");
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("label", label);
+        result.put("finishedAt", Instant.now().toString());
+        result.put("settings", settings);
+        result.put("endpoints", summary);
+        result.put("server", server);
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), result);
+        System.out.println("Result written to " + file);
+
+        String baseline = System.getProperty("loadtest.baseline");
+        if (baseline != null && !baseline.isBlank()) {
+            compare(objectMapper.readTree(Path.of(baseline).toFile()).get("endpoints"), summary);
+        }
+    }
+
+    private static void compare(JsonNode baseline, Map<String, LatencyStats.Summary> summary) {
+        System.out.printf("%n%-26s %12s %12s %12s %12s%n", "vs baseline", "req/s", "change", "p99 ms", "change");
+        summary.forEach((endpoint, current) -> {
+            JsonNode previous = baseline.get(endpoint);
+            if (previous == null) {
+                System.out.printf("%-26s %12.1f %12s %12.1f %12s%n", endpoint, current.throughput(), "new", current.p99Millis(), "new");
+                return;
+            }
+            System.out.printf("%-26s %12.1f %+11.1f%% %12.1f %+11.1f%%%n", endpoint,
+                    current.throughput(), change(previous.get("throughput").asDouble(), current.throughput()),
+                    current.p99Millis(), change(previous.get("p99Millis").asDouble(), current.p99Millis()));
+        });
+    }
+
+    private static double change(double before, double after) {
+        return before == 0 ? 0 : (after - before) / before * 100;
+    }
+
+    private static Duration duration(String property, String defaultValue) {
+        return DurationStyle.detectAndParse(System.getProperty(property, defaultValue));
+    }
+
+    private static Map<String, Integer> parseMix(String spec) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String part : spec.split(",")) {
+            String[] pair = part.trim().split(":");
+            mix.put(pair[0].trim(), Integer.parseInt(pair[1].trim()));
+        }
+        return mix;
+    }
+
+    private static final class VirtualUser {
+
+        private final String email;
+        private final String password;
+        private final List<Long> ids = new ArrayList<>();
+        private volatile String token;
+
+        private VirtualUser(String email, String password) {
+            this.email = email;
+            this.password = password;
+        }
+
+        synchronized void addId(long id) {
+            ids.add(id);
+        }
+
+        // A deleted id is taken out first so that no other client picks it afterwards
+        synchronized Long randomId(boolean take) {
+            if (ids.isEmpty()) {
+                return null;
+            }
+            int index = ThreadLocalRandom.current().nextInt(ids.size());
+            return take ? ids.remove(index) : ids.get(index);
+        }
+    }
+}
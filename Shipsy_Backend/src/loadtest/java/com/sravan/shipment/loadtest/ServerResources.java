@@ -0,0 +1,43 @@
+package com.sravan.shipment.loadtest;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadMXBean;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Peak platform threads and heap of the JVM the server runs in. The load clients share that JVM but
+ * run on virtual threads, so they add only the carrier threads to the platform thread count.
+ */
+final class ServerResources {
+
+    private ServerResources() {
+    }
+
+    static void reset() {
+        ManagementFactory.getThreadMXBean().resetPeakThreadCount();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    static Map<String, Object> snapshot() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long peakHeap = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                // pools peak at different moments, so this is an upper bound
+                peakHeap += pool.getPeakUsage().getUsed();
+            }
+        }
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("peakPlatformThreads", threads.getPeakThreadCount());
+        snapshot.put("platformThreads", threads.getThreadCount());
+        snapshot.put("peakHeapUsedBytes", peakHeap);
+        return snapshot;
+    }
+}
@@ -0,0 +1,248 @@
+package com.sravan.shipment.loadtest;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Mobile-style clients that hold connections rather than issue requests: idle pollers keep a
+ * keep-alive connection open and send one small GET per poll interval, slow readers stream
+ * POST /shipments/filter as NDJSON through a small receive buffer at a fixed byte rate. Both use raw
+ * sockets so every client owns exactly one server connection, which HttpClient pooling would hide.
+ */
+final class SlowClients implements AutoCloseable {
+
+    static final String IDLE_POLL = "GET /shipments (idle poll)";
+    static final String SLOW_STREAM = "POST /shipments/filter (ndjson, slow)";
+
+    private static final int RECEIVE_BUFFER = 4096;
+    private static final int READ_CHUNK = 512;
+
+    private final String host;
+    private final int port;
+    private final String contextPath;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicInteger openConnections = new AtomicInteger();
+    private final AtomicInteger peakConnections = new AtomicInteger();
+
+    SlowClients(String host, int port, String contextPath) {
+        this.host = host;
+        this.port = port;
+        this.contextPath = contextPath;
+    }
+
+    void start(List<String> tokens, int idle, Duration pollInterval, int slowReaders, int bytesPerSecond,
+               long deadlineNanos, LatencyStatsSource stats) {
+        for (int i = 0; i < idle; i++) {
+            String token = tokens.get(i % tokens.size());
+            executor.submit(() -> {
+                poll(token, pollInterval, deadlineNanos, stats);
+                return null;
+            });
+        }
+        for (int i = 0; i < slowReaders; i++) {
+            String token = tokens.get(i % tokens.size());
+            executor.submit(() -> {
+                while (System.nanoTime() < deadlineNanos) {
+                    if (!readSlowly(token, bytesPerSecond, deadlineNanos, stats)) {
+                        // turned away, most likely at the stream limit
+                        Thread.sleep(1000);
+                    }
+                }
+                return null;
+            });
+        }
+    }
+
+    int getPeakConnections() {
+        return peakConnections.get();
+    }
+
+    @Override
+    public void close() {
+        executor.close();
+    }
+
+    private void poll(String token, Duration pollInterval, long deadlineNanos, LatencyStatsSource stats)
+            throws InterruptedException {
+        // spread the first polls so the connections do not arrive in lockstep
+        Thread.sleep(ThreadLocalRandom.current().nextLong(Math.max(1, pollInterval.toMillis())));
+        while (System.nanoTime() < deadlineNanos) {
+            try (Connection connection = connect()) {
+                InputStream in = new BufferedInputStream(connection.socket.getInputStream());
+                OutputStream out = connection.socket.getOutputStream();
+                while (System.nanoTime() < deadlineNanos) {
+                    long started = System.nanoTime();
+                    out.write(request("GET", "/shipments?size=1", token, null, "application/json", true));
+                    out.flush();
+                    int status = readResponse(in);
+                    stats.get().record(IDLE_POLL, System.nanoTime() - started, status / 100 == 2);
+                    Thread.sleep(pollInterval);
+                }
+            } catch (IOException e) {
+                // the server dropped the idle connection; count it and reconnect after a pause
+                stats.get().record(IDLE_POLL, 0, false);
+                Thread.sleep(pollInterval);
+            }
+        }
+    }
+
+    // A read still running at the deadline is not recorded
+    private boolean readSlowly(String token, int bytesPerSecond, long deadlineNanos, LatencyStatsSource stats)
+            throws InterruptedException {
+        long started = System.nanoTime();
+        boolean ok = false;
+        try (Connection connection = connect()) {
+            OutputStream out = connection.socket.getOutputStream();
+            out.write(request("POST", "/shipments/filter", token, "{}", "application/x-ndjson", false));
+            out.flush();
+            InputStream in = connection.socket.getInputStream();
+            byte[] buffer = new byte[READ_CHUNK];
+            String head = null;
+            long received = 0;
+            int n;
+            while ((n = in.read(buffer)) != -1 && System.nanoTime() < deadlineNanos) {
+                if (head == null) {
+                    head = new String(buffer, 0, n, StandardCharsets.ISO_8859_1);
+                }
+                received += n;
+                // paced on the total so far, so short reads and late wake-ups do not lower the rate
+                long aheadNanos = started + received * 1_000_000_000L / Math.max(1, bytesPerSecond) - System.nanoTime();
+                if (aheadNanos > 0) {
+                    Thread.sleep(Duration.ofNanos(aheadNanos));
+                }
+            }
+            if (n != -1) {
+                return true;
+            }
+            ok = head != null && head.startsWith("HTTP/1.1 2");
+        } catch (IOException e) {
+            // recorded as a failure below
+        }
+        stats.get().record(SLOW_STREAM, System.nanoTime() - started, ok);
+        return ok;
+    }
+
+    private Connection connect() throws IOException {
+        Socket socket = new Socket();
+        try {
+            socket.setReceiveBufferSize(RECEIVE_BUFFER);
+            socket.connect(new InetSocketAddress(host, port), 10_000);
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+        peakConnections.accumulateAndGet(openConnections.incrementAndGet(), Math::max);
+        return new Connection(socket);
+    }
+
+    private byte[] request(String method, String path, String token, String body, String accept, boolean keepAlive) {
+        byte[] payload = body == null ? new byte[0] : body.getBytes(StandardCharsets.UTF_8);
+        StringBuilder sb = new StringBuilder()
+                .append(method).append(' ').append(contextPath).append(path).append(" HTTP/1.1\r\n")
+                .append("Host: ").append(host).append(':').append(port).append("\r\n")
+                .append("Authorization: Bearer ").append(token).append("\r\n")
+                .append("Accept: ").append(accept).append("\r\n")
+                .append("Connection: ").append(keepAlive ? "keep-alive" : "close").append("\r\n");
+        if (body != null) {
+            sb.append("Content-Type: application/json\r\n")
+                    .append("Content-Length: ").append(payload.length).append("\r\n");
+        }
+        sb.append("\r\n");
+        byte[] head = sb.toString().getBytes(StandardCharsets.ISO_8859_1);
+        byte[] request = new byte[head.length + payload.length];
+        System.arraycopy(head, 0, request, 0, head.length);
+        System.arraycopy(payload, 0, request, head.length, payload.length);
+        return request;
+    }
+
+    // Reads one response off a keep-alive connection and returns its status code
+    private static int readResponse(InputStream in) throws IOException {
+        String statusLine = readLine(in);
+        int status = Integer.parseInt(statusLine.split(" ")[1]);
+        long contentLength = -1;
+        boolean chunked = false;
+        String line;
+        while (!(line = readLine(in)).isEmpty()) {
+            String lower = line.toLowerCase(Locale.ROOT);
+            if (lower.startsWith("content-length:")) {
+                contentLength = Long.parseLong(line.substring(15).trim());
+            } else if (lower.startsWith("transfer-encoding:") && lower.contains("chunked")) {
+                chunked = true;
+            }
+        }
+        if (chunked) {
+            long size;
+            while ((size = Long.parseLong(readLine(in).split(";")[0].trim(), 16)) > 0) {
+                skip(in, size);
+                readLine(in);
+            }
+            readLine(in);
+        } else if (contentLength > 0) {
+            skip(in, contentLength);
+        }
+        return status;
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != '\n') {
+            if (b == -1) {
+                throw new IOException("connection closed");
+            }
+            if (b != '\r') {
+                line.write(b);
+            }
+        }
+        return line.toString(StandardCharsets.ISO_8859_1);
+    }
+
+    private static void skip(InputStream in, long bytes) throws IOException {
+        long remaining = bytes;
+        while (remaining > 0) {
+            long skipped = in.skip(remaining);
+            if (skipped <= 0) {
+                if (in.read() == -1) {
+                    throw new IOException("connection closed");
+                }
+                skipped = 1;
+            }
+            remaining -= skipped;
+        }
+    }
+
+    // Keeps the open connection count in step with the sockets actually connected
+    private final class Connection implements AutoCloseable {
+
+        private final Socket socket;
+
+        private Connection(Socket socket) {
+            this.socket = socket;
+        }
+
+        @Override
+        public void close() throws IOException {
+            openConnections.decrementAndGet();
+            socket.close();
+        }
+    }
+
+    // LoadTestRunner swaps its stats after the warm-up, so clients look them up on every record
+    @FunctionalInterface
+    interface LatencyStatsSource {
+        LatencyStats get();
+    }
+}
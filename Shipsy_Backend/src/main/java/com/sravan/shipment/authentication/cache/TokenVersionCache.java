@@ -0,0 +1,81 @@
+package com.sravan.shipment.authentication.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sravan.shipment.authentication.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Current token version per userId. A token is only accepted while its ver claim matches, so
+ * bumping the version revokes every token issued before. Versions are read with a one-column
+ * lookup and kept for max-ttl; another instance bumping a version is seen within that time.
+ */
+@Component
+public class TokenVersionCache {
+
+    // Stands in for a user that no longer exists, no token matches it
+    private static final int NO_USER = -1;
+
+    private final UserRepository userRepository;
+    private final Cache<String, Integer> versions;
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public TokenVersionCache(UserRepository userRepository,
+                             MeterRegistry meterRegistry,
+                             @Value("${jwt.version-cache.max-size:100000}") long maxSize,
+                             @Value("${jwt.version-cache.max-ttl:30s}") Duration maxTtl) {
+        this.userRepository = userRepository;
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(maxTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, versions, "jwt.token-versions");
+    }
+
+    public boolean isCurrent(String userId, int tokenVersion) {
+        if (userId == null) {
+            return false;
+        }
+        Integer version = versions.getIfPresent(userId);
+        return (version != null ? version : load(userId)) == tokenVersion;
+    }
+
+    // Drops now and again after commit, so a read racing the version bump cannot re-cache the old version
+    public void invalidate(String userId) {
+        evict(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(userId);
+                }
+            });
+        }
+    }
+
+    // Read outside the cache's per-key lock, which would pin a virtual thread for the whole query.
+    // A version read before an invalidation is taken out again rather than kept for max-ttl.
+    private int load(String userId) {
+        long seen = invalidations.get();
+        int version = userRepository.findTokenVersionByUserId(userId).orElse(NO_USER);
+        versions.put(userId, version);
+        if (invalidations.get() != seen) {
+            versions.asMap().remove(userId, version);
+        }
+        return version;
+    }
+
+    private void evict(String userId) {
+        invalidations.incrementAndGet();
+        versions.invalidate(userId);
+    }
+}
@@ -0,0 +1,90 @@
+package com.sravan.shipment.authentication.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.sravan.shipment.authentication.security.AuthenticatedUser;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Date;
+import java.util.HexFormat;
+
+/**
+ * Verified JWTs mapped to their principal, so repeat requests with the same token skip the
+ * signature check and the user lookup. Keyed by a SHA-256 of the token; an entry never outlives
+ * the token's exp claim.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private final Cache<String, Entry> cache;
+    private final Duration maxTtl;
+
+    public VerifiedTokenCache(MeterRegistry meterRegistry,
+                              @Value("${jwt.cache.max-size:10000}") long maxSize,
+                              @Value("${jwt.cache.max-ttl:5m}") Duration maxTtl) {
+        this.maxTtl = maxTtl;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt.verified-tokens");
+    }
+
+    public AuthenticatedUser get(String token) {
+        Entry entry = cache.getIfPresent(hash(token));
+        return entry == null ? null : entry.userDetails();
+    }
+
+    public void put(String token, AuthenticatedUser userDetails, Date expiration) {
+        long expiresAt = Math.min(expiration.getTime(), System.currentTimeMillis() + maxTtl.toMillis());
+        cache.put(hash(token), new Entry(userDetails, expiresAt));
+    }
+
+    // Drops every cached token of the user, e.g. after a password reset
+    public void invalidateUser(String email) {
+        cache.asMap().values().removeIf(entry -> entry.userDetails().getUsername().equals(email));
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record Entry(AuthenticatedUser userDetails, long expiresAtMillis) {
+    }
+
+    private static final class TokenExpiry implements Expiry<String, Entry> {
+
+        @Override
+        public long expireAfterCreate(String key, Entry entry, long currentTime) {
+            return remaining(entry);
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+            return remaining(entry);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        private static long remaining(Entry entry) {
+            return Duration.ofMillis(Math.max(0, entry.expiresAtMillis() - System.currentTimeMillis())).toNanos();
+        }
+    }
+}
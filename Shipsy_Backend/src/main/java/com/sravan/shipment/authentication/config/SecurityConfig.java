@@ -1,8 +1,13 @@
 package com.sravan.shipment.authentication.config;
 
 import com.sravan.shipment.authentication.filter.JwtRequestFilter;
+import com.sravan.shipment.authentication.filter.RateLimitFilter;
 import com.sravan.shipment.authentication.service.AppUserDetailsService;
 import lombok.RequiredArgsConstructor;
+import com.sravan.shipment.authentication.util.BoundedPasswordEncoder;
+import com.sravan.shipment.authentication.util.TimedPasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -22,6 +27,7 @@ import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import org.springframework.web.filter.CorsFilter;
 
+import java.time.Duration;
 import java.util.List;
 
 @Configuration
@@ -31,25 +37,42 @@ public class SecurityConfig {
 
     private final AppUserDetailsService appUserDetailsService;
     private final JwtRequestFilter jwtRequestFilter;
+    private final RateLimitFilter rateLimitFilter;
     private final CustomAuthenticationEntryPoint customAuthenticationEntryPoint;
+    private final MeterRegistry meterRegistry;
+
+    // Stored hashes below this cost are re-encoded at it on the user's next successful login
+    @Value("${auth.password.bcrypt-strength:10}")
+    private int bcryptStrength;
+
+    @Value("${auth.password.max-concurrent:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}")
+    private int maxConcurrentHashes;
+
+    @Value("${auth.password.acquire-timeout:2s}")
+    private Duration hashAcquireTimeout;
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception{
         http.cors(Customizer.withDefaults())
                 .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(auth -> auth
-                        .requestMatchers("/login", "/register", "/send-reset-otp", "/reset-password", "/logout")
+                        .requestMatchers("/login", "/register", "/send-reset-otp", "/reset-password", "/logout", "/refresh")
+                        .permitAll()
+                        // probes and the Prometheus scraper carry no user token
+                        .requestMatchers("/actuator/health", "/actuator/health/**", "/actuator/prometheus")
                         .permitAll().anyRequest().authenticated())
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .logout(AbstractHttpConfigurer::disable)
                 .addFilterBefore(jwtRequestFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterAfter(rateLimitFilter, JwtRequestFilter.class)
                 .exceptionHandling(ex -> ex.authenticationEntryPoint(customAuthenticationEntryPoint));
         return http.build();
     }
 
     @Bean
     public PasswordEncoder passwordEncoder(){
-        return new BCryptPasswordEncoder();
+        PasswordEncoder timed = new TimedPasswordEncoder(new BCryptPasswordEncoder(bcryptStrength), meterRegistry);
+        return new BoundedPasswordEncoder(timed, maxConcurrentHashes, hashAcquireTimeout, meterRegistry);
     }
 
     @Bean
@@ -60,7 +83,7 @@ public class SecurityConfig {
     private CorsConfigurationSource corsConfigurationSource(){
         CorsConfiguration config = new CorsConfiguration();
         config.setAllowedOrigins(List.of("http://localhost:5173"));
-        config.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE"));
+        config.setAllowedMethods(List.of("GET", "POST", "PUT", "PATCH", "DELETE"));
         config.setAllowedHeaders(List.of("Authorization", "Content-Type"));
         config.setAllowCredentials(true);
 
@@ -74,6 +97,9 @@ public class SecurityConfig {
         DaoAuthenticationProvider authenticationProvider = new DaoAuthenticationProvider();
         authenticationProvider.setUserDetailsService(appUserDetailsService);
         authenticationProvider.setPasswordEncoder(passwordEncoder());
+        authenticationProvider.setUserDetailsPasswordService(appUserDetailsService);
+        // unknown emails keep their 404 instead of turning into bad credentials
+        authenticationProvider.setHideUserNotFoundExceptions(false);
         return new ProviderManager(authenticationProvider);
     }
 }
@@ -1,17 +1,17 @@
 package com.sravan.shipment.authentication.controller;
 
-import com.sravan.shipment.authentication.entity.UserEntity;
 import com.sravan.shipment.authentication.exception.BusinessException;
 import com.sravan.shipment.authentication.dto.AuthRequest;
 import com.sravan.shipment.authentication.dto.AuthResponse;
+import com.sravan.shipment.authentication.dto.RefreshRequest;
 import com.sravan.shipment.authentication.dto.ResetPasswordRequest;
-import com.sravan.shipment.authentication.repository.UserRepository;
-import com.sravan.shipment.authentication.service.AppUserDetailsService;
+import com.sravan.shipment.authentication.security.AuthenticatedUser;
+import com.sravan.shipment.authentication.security.TokenPair;
 import com.sravan.shipment.authentication.service.ProfileService;
-import com.sravan.shipment.authentication.util.JwtUtil;
-import jakarta.servlet.http.HttpServletResponse;
+import com.sravan.shipment.authentication.service.TokenService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseCookie;
@@ -20,41 +20,42 @@ import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.DisabledException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.annotation.CurrentSecurityContext;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
 @RequiredArgsConstructor
 public class AuthController {
 
+    private static final String ACCESS_COOKIE = "jwt";
+    private static final String REFRESH_COOKIE = "refresh_token";
+    // The only endpoints that read the refresh cookie; a cookie has one path, so it is set once per endpoint
+    private static final List<String> REFRESH_COOKIE_PATHS = List.of("/refresh", "/logout");
+
     private final AuthenticationManager authenticationManager;
-    private final AppUserDetailsService appUserDetailsService;
-    private final JwtUtil jwtUtil;
+    private final TokenService tokenService;
     private final ProfileService profileService;
-    private final UserRepository userRepository;
+
+    @Value("${server.servlet.context-path:}")
+    private String contextPath;
 
     @PostMapping("/login")
     public ResponseEntity<?> login(@Valid @RequestBody AuthRequest request) {
-        UserEntity existingUser = userRepository.findByEmail(request.getEmail())
-                .orElseThrow(() -> new UsernameNotFoundException("User not found: "+request.getEmail()));
         try {
-            authenticate(request.getEmail(), request.getPassword());
-            final UserDetails userDetails = appUserDetailsService.loadUserByUsername(request.getEmail());
-            final String jwtToken = jwtUtil.generateToken(userDetails);
-            ResponseCookie cookie = ResponseCookie.from("jwt", jwtToken)
-                    .httpOnly(true)
-                    .path("/")
-                    .maxAge(Duration.ofDays(1))
-                    .sameSite("Strict")
-                    .build();
-            return ResponseEntity.ok().header(HttpHeaders.SET_COOKIE, cookie.toString())
-                    .body(new AuthResponse(request.getEmail(), jwtToken));
+            // the provider loads the user once, the token is built from that same principal
+            Authentication authentication = authenticate(request.getEmail(), request.getPassword());
+            final AuthenticatedUser userDetails = (AuthenticatedUser) authentication.getPrincipal();
+            return tokenResponse(tokenService.issue(userDetails));
+        } catch(UsernameNotFoundException | BusinessException ex) {
+            throw ex;
         } catch(BadCredentialsException ex) {
             Map<String, Object> error = new HashMap<>();
             error.put("error", true);
@@ -73,8 +74,15 @@ public class AuthController {
         }
     }
 
-    private void authenticate(String email, String password) {
-        authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(email, password));
+    private Authentication authenticate(String email, String password) {
+        return authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(email, password));
+    }
+
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthResponse> refresh(@RequestBody(required = false) RefreshRequest request,
+                                                @CookieValue(name = REFRESH_COOKIE, required = false) String refreshCookie) {
+        String refreshToken = request != null && request.getRefreshToken() != null ? request.getRefreshToken() : refreshCookie;
+        return tokenResponse(tokenService.refresh(refreshToken));
     }
 
     @GetMapping("/is-authenticated")
@@ -107,17 +115,51 @@ public class AuthController {
     }
 
     @PostMapping("/logout")
-    public ResponseEntity<?> logout(HttpServletResponse response) {
-        ResponseCookie cookie = ResponseCookie.from("jwt", "")
-                .httpOnly(true)
-                .secure(false)
-                .path("/")
-                .maxAge(0)
-                .sameSite("Strict")
-                .build();
+    public ResponseEntity<?> logout(@RequestBody(required = false) RefreshRequest request,
+                                    @CookieValue(name = REFRESH_COOKIE, required = false) String refreshCookie,
+                                    @CookieValue(name = ACCESS_COOKIE, required = false) String accessCookie,
+                                    @RequestHeader(name = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        // any token of the session will do, the access token may already have expired
+        if (request != null && request.getRefreshToken() != null) {
+            tokenService.revokeSession(request.getRefreshToken());
+        } else if (refreshCookie != null) {
+            tokenService.revokeSession(refreshCookie);
+        } else if (authorization != null && authorization.startsWith("Bearer ")) {
+            tokenService.revokeSession(authorization.substring(7));
+        } else {
+            tokenService.revokeSession(accessCookie);
+        }
 
         return ResponseEntity.ok()
-                .header(HttpHeaders.SET_COOKIE, cookie.toString())
+                .header(HttpHeaders.SET_COOKIE, cookies("", Duration.ZERO, "", Duration.ZERO))
                 .body("Logged out successfully!");
     }
+
+    private ResponseEntity<AuthResponse> tokenResponse(TokenPair tokens) {
+        long now = System.currentTimeMillis();
+        Duration accessTtl = Duration.ofMillis(tokens.accessTokenExpiresAt().getTime() - now);
+        Duration refreshTtl = Duration.ofMillis(tokens.refreshTokenExpiresAt().getTime() - now);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.SET_COOKIE, cookies(tokens.accessToken(), accessTtl, tokens.refreshToken(), refreshTtl))
+                .body(new AuthResponse(tokens.email(), tokens.accessToken(), tokens.refreshToken(), accessTtl.toSeconds()));
+    }
+
+    // The access cookie goes with every request, the long-lived refresh cookie only to the endpoints that need it
+    private String[] cookies(String accessToken, Duration accessTtl, String refreshToken, Duration refreshTtl) {
+        List<String> cookies = new ArrayList<>(1 + REFRESH_COOKIE_PATHS.size());
+        cookies.add(cookie(ACCESS_COOKIE, accessToken, accessTtl, "/").toString());
+        for (String path : REFRESH_COOKIE_PATHS) {
+            cookies.add(cookie(REFRESH_COOKIE, refreshToken, refreshTtl, contextPath + path).toString());
+        }
+        return cookies.toArray(String[]::new);
+    }
+
+    private static ResponseCookie cookie(String name, String value, Duration maxAge, String path) {
+        return ResponseCookie.from(name, value)
+                .httpOnly(true)
+                .path(path)
+                .maxAge(maxAge)
+                .sameSite("Strict")
+                .build();
+    }
 }
@@ -8,4 +8,7 @@ import lombok.Getter;
 public class AuthResponse {
     private String email;
     private String token;
+    private String refreshToken;
+    // seconds until token expires, refresh it before then
+    private long expiresIn;
 }
@@ -0,0 +1,14 @@
+package com.sravan.shipment.authentication.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Clients that do not keep cookies send the refresh token in the body instead
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RefreshRequest {
+
+    private String refreshToken;
+}
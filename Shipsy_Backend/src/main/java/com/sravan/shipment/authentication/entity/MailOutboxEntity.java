@@ -0,0 +1,44 @@
+package com.sravan.shipment.authentication.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "mail_outbox")
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class MailOutboxEntity {
+
+    public enum MailType { VERIFY_OTP, RESET_OTP }
+
+    public enum Status { PENDING, SENDING, SENT, FAILED }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private MailType mailType;
+    @Column(nullable = false)
+    private String recipient;
+    // cleared once the mail is sent
+    @Column(length = 16)
+    private String otp;
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status;
+    private int attempts;
+    // due time while PENDING, lease expiry while SENDING
+    @Column(nullable = false)
+    private Long nextAttemptAt;
+    @Column(length = 1000)
+    private String lastError;
+    @Column(nullable = false)
+    private Long createdAt;
+    private Long sentAt;
+}
@@ -33,6 +33,10 @@ public class UserEntity {
     private Long verifyOtpExpireAt;
     private String resetOtp;
     private Long resetOtpExpireAt;
+    // Bumped to revoke every token issued so far
+    @Builder.Default
+    @Column(nullable = false)
+    private Integer tokenVersion = 0;
 
     @CreationTimestamp
     @Column(updatable = false)
@@ -1,11 +1,14 @@
 package com.sravan.shipment.authentication.exception;
 
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.transaction.CannotCreateTransactionException;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -35,10 +38,19 @@ public class GlobalExceptionHandler {
     public ResponseEntity<Map<String, String>> handleBusinessException(BusinessException ex) {
         Map<String, String> error = new HashMap<>();
         error.put("message", ex.getMessage()); // Just the message, no status
-        return ResponseEntity.status(ex.getStatus()).body(error);
+        // explicit, so errors from endpoints producing NDJSON are still written as JSON
+        return ResponseEntity.status(ex.getStatus()).contentType(MediaType.APPLICATION_JSON).body(error);
     }
 
-     // 4. Catch all (optional)
+    // 4. Handle an exhausted connection pool or admission limit, the client may retry
+    @ExceptionHandler({CannotCreateTransactionException.class, DataAccessResourceFailureException.class})
+    public ResponseEntity<Map<String, String>> handleDatabaseBusy(Exception ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("message", "Service is busy, please retry");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "1").body(error);
+    }
+
+     // 5. Catch all (optional)
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Map<String, String>> handleGeneric(Exception ex) {
         Map<String, String> error = new HashMap<>();
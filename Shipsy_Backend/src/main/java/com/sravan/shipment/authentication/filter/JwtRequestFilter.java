@@ -1,7 +1,14 @@
 package com.sravan.shipment.authentication.filter;
 
+import com.sravan.shipment.authentication.cache.TokenVersionCache;
+import com.sravan.shipment.authentication.cache.VerifiedTokenCache;
+import com.sravan.shipment.authentication.revocation.TokenRevocationList;
+import com.sravan.shipment.authentication.security.AuthenticatedUser;
 import com.sravan.shipment.authentication.service.AppUserDetailsService;
 import com.sravan.shipment.authentication.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.Cookie;
@@ -10,7 +17,6 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -24,8 +30,12 @@ public class JwtRequestFilter extends OncePerRequestFilter {
 
     private final AppUserDetailsService appUserDetailsService;
     private final JwtUtil jwtUtil;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final TokenVersionCache tokenVersionCache;
+    private final TokenRevocationList revocationList;
+    private final MeterRegistry meterRegistry;
 
-    private static final List<String> PUBLIC_URLS = List.of("/login", "/register", "/send-reset-otp", "/reset-password", "/logout");
+    private static final List<String> PUBLIC_URLS = List.of("/login", "/register", "/send-reset-otp", "/reset-password", "/logout", "/refresh");
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
@@ -37,7 +47,6 @@ public class JwtRequestFilter extends OncePerRequestFilter {
         }
 
         String jwt = null;
-        String email = null;
 
         //1. check the authorization header
         final String authorizationHeader = request.getHeader("Authorization");
@@ -59,20 +68,56 @@ public class JwtRequestFilter extends OncePerRequestFilter {
         }
 
         //3. validate the token and set security context
-        if (jwt != null) {
-
-            email = jwtUtil.extractEmail(jwt);
-            if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = appUserDetailsService.loadUserByUsername(email);
-                if (jwtUtil.validateToken(jwt, userDetails)) {
-                    UsernamePasswordAuthenticationToken authenticationToken =
-                            new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-                    authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    SecurityContextHolder.getContext().setAuthentication(authenticationToken);
+        if (jwt != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+
+            AuthenticatedUser userDetails = verifiedTokenCache.get(jwt);
+            if (userDetails == null) {
+                Claims claims = jwtUtil.extractAllClaims(jwt);
+                // refresh tokens are only accepted by POST /refresh
+                if (!jwtUtil.isRefreshToken(claims)) {
+                    AuthenticatedUser principal = jwtUtil.toPrincipal(claims);
+                    if (principal == null && claims.getSubject() != null) {
+                        // tokens issued before the userId claim still need the user row until they expire
+                        AuthenticatedUser loaded = loadUser(claims.getSubject());
+                        if (jwtUtil.validateToken(claims, loaded)) {
+                            principal = loaded.withPassword(null);
+                        }
+                    }
+                    if (principal != null) {
+                        verifiedTokenCache.put(jwt, principal, claims.getExpiration());
+                        userDetails = principal;
+                    }
                 }
             }
+
+            // a password reset bumps the version and revokes every token issued before it, a logout
+            // revokes the session
+            if (userDetails != null && isLive(userDetails)) {
+                UsernamePasswordAuthenticationToken authenticationToken =
+                        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+                authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(authenticationToken);
+            }
         }
 
         filterChain.doFilter(request, response);
     }
+
+    private boolean isLive(AuthenticatedUser user) {
+        return (user.getSessionId() == null || !revocationList.isSessionRevoked(user.getSessionId()))
+                && tokenVersionCache.isCurrent(user.getUserId(), user.getTokenVersion());
+    }
+
+    private AuthenticatedUser loadUser(String email) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "found";
+        try {
+            return appUserDetailsService.loadUserByUsername(email);
+        } catch (RuntimeException e) {
+            outcome = "not_found";
+            throw e;
+        } finally {
+            sample.stop(meterRegistry.timer("auth.user.lookup", "outcome", outcome));
+        }
+    }
 }
@@ -0,0 +1,261 @@
+package com.sravan.shipment.authentication.filter;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sravan.shipment.authentication.ratelimit.RateLimit;
+import com.sravan.shipment.authentication.ratelimit.RateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Per-route token buckets for the endpoints that cost a BCrypt check or an email, or check an OTP:
+ * POST /login, /send-otp, /send-reset-otp, /verify-otp and /reset-password. The OTP checks are
+ * limited so a 6-digit code cannot be guessed within its lifetime. Each route limits by client IP
+ * and/or by the email it acts on; a request over any of its limits gets a 429 with Retry-After and
+ * uses up none of the others.
+ * Runs after JwtRequestFilter so /send-otp and /verify-otp can be keyed by the signed-in user.
+ *
+ * <p>Limits are rate-limit.&lt;route&gt; = comma-separated ip:N/period and email:N/period rules. The
+ * client IP is the remote address; behind a proxy set server.forward-headers-strategy so it is the
+ * caller's.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    // Login and reset bodies are a few dozen bytes, anything bigger is not keyed by email
+    private static final int MAX_BODY_BYTES = 8192;
+
+    private final RateLimiter rateLimiter;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final Map<String, Route> routes;
+
+    public RateLimitFilter(RateLimiter rateLimiter,
+                           ObjectMapper objectMapper,
+                           MeterRegistry meterRegistry,
+                           @Value("${rate-limit.enabled:true}") boolean enabled,
+                           @Value("${rate-limit.login:ip:30/1m,email:10/1m}") String login,
+                           @Value("${rate-limit.send-otp:email:3/10m}") String sendOtp,
+                           @Value("${rate-limit.send-reset-otp:ip:10/10m,email:3/10m}") String sendResetOtp,
+                           @Value("${rate-limit.verify-otp:ip:20/10m,email:5/10m}") String verifyOtp,
+                           @Value("${rate-limit.reset-password:ip:20/10m,email:5/10m}") String resetPassword) {
+        this.rateLimiter = rateLimiter;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.routes = Map.of(
+                "/login", new Route("login", rules(login), true, this::bodyEmail),
+                "/send-otp", new Route("send-otp", rules(sendOtp), false, request -> signedInEmail()),
+                "/send-reset-otp", new Route("send-reset-otp", rules(sendResetOtp), false, request -> request.getParameter("email")),
+                "/verify-otp", new Route("verify-otp", rules(verifyOtp), false, request -> signedInEmail()),
+                "/reset-password", new Route("reset-password", rules(resetPassword), true, this::bodyEmail));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !"POST".equals(request.getMethod()) || !routes.containsKey(request.getServletPath());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        Route route = routes.get(request.getServletPath());
+        if (route.readsBody()) {
+            request = CachedBodyRequest.wrap(request);
+        }
+
+        List<Rule> applied = new ArrayList<>(route.rules().size());
+        List<RateLimiter.Permit> permits = new ArrayList<>(route.rules().size());
+        String email = null;
+        for (Rule rule : route.rules()) {
+            String subject;
+            if (rule.key() == Key.IP) {
+                subject = request.getRemoteAddr();
+            } else {
+                if (email == null) {
+                    email = normalize(route.email().apply(request));
+                }
+                subject = email;
+            }
+            if (subject == null) {
+                continue;
+            }
+            applied.add(rule);
+            permits.add(new RateLimiter.Permit(route.name() + '|' + rule.key() + '|' + subject, rule.limit()));
+        }
+
+        long waitNanos = 0;
+        long[] waits = rateLimiter.tryAcquireAll(permits);
+        for (int i = 0; i < waits.length; i++) {
+            if (waits[i] > 0) {
+                meterRegistry.counter("rate-limit.rejected", "route", route.name(), "key", applied.get(i).key().tag()).increment();
+                waitNanos = Math.max(waitNanos, waits[i]);
+            }
+        }
+
+        if (waitNanos > 0) {
+            reject(response, waitNanos);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader("Retry-After", String.valueOf(retryAfter));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(),
+                Map.of("message", "Too many requests, please retry in " + retryAfter + " seconds"));
+    }
+
+    private String bodyEmail(HttpServletRequest request) {
+        if (!(request instanceof CachedBodyRequest cached) || cached.body.length == 0) {
+            return null;
+        }
+        // streams the top-level fields only, no tree is built for the password and the rest
+        try (JsonParser parser = objectMapper.createParser(cached.body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+                boolean isEmail = "email".equals(parser.currentName());
+                token = parser.nextToken();
+                if (isEmail) {
+                    return token == JsonToken.VALUE_STRING ? parser.getText() : null;
+                }
+                parser.skipChildren();
+            }
+            return null;
+        } catch (IOException e) {
+            // malformed bodies are rejected by the controller, they are still limited by IP here
+            return null;
+        }
+    }
+
+    private static String signedInEmail() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication == null ? null : authentication.getName();
+    }
+
+    private static String normalize(String email) {
+        return email == null || email.isBlank() ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private List<Rule> rules(String spec) {
+        List<Rule> rules = new ArrayList<>();
+        for (String part : spec.split(",")) {
+            int colon = part.indexOf(':');
+            if (colon < 0) {
+                throw new IllegalArgumentException("Rate limit rule must look like ip:10/1m or email:3/10m: " + part);
+            }
+            Key key = Key.valueOf(part.substring(0, colon).trim().toUpperCase(Locale.ROOT));
+            RateLimit limit = RateLimit.parse(part.substring(colon + 1));
+            if (limit.period().compareTo(rateLimiter.getIdleEviction()) > 0) {
+                throw new IllegalArgumentException("Rate limit period " + limit.period()
+                        + " is longer than rate-limit.idle-eviction " + rateLimiter.getIdleEviction());
+            }
+            rules.add(new Rule(key, limit));
+        }
+        return List.copyOf(rules);
+    }
+
+    private enum Key {
+        IP, EMAIL;
+
+        String tag() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private record Rule(Key key, RateLimit limit) {
+    }
+
+    private record Route(String name, List<Rule> rules, boolean readsBody, Function<HttpServletRequest, String> email) {
+    }
+
+    // Keeps the JSON body readable for the controller after the email has been taken from it
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        static HttpServletRequest wrap(HttpServletRequest request) throws IOException {
+            long length = request.getContentLengthLong();
+            if (length < 0 || length > MAX_BODY_BYTES) {
+                return request;
+            }
+            return new CachedBodyRequest(request, request.getInputStream().readNBytes((int) length));
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException("Cached request bodies are read synchronously");
+                }
+
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(new ByteArrayInputStream(body),
+                    encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding)));
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.sravan.shipment.authentication.ratelimit;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.time.Duration;
+
+/**
+ * A limit of permits per period, written as "10/1m". Up to all permits may be used at once, after
+ * which one comes back every period / permits.
+ */
+public record RateLimit(int permits, Duration period) {
+
+    public RateLimit {
+        if (permits <= 0 || period.isNegative() || period.isZero()) {
+            throw new IllegalArgumentException("Rate limit needs positive permits and period: " + permits + "/" + period);
+        }
+    }
+
+    public static RateLimit parse(String spec) {
+        String[] parts = spec.trim().split("/");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Rate limit must look like 10/1m: " + spec);
+        }
+        return new RateLimit(Integer.parseInt(parts[0].trim()), DurationStyle.detectAndParse(parts[1].trim()));
+    }
+
+    long periodNanos() {
+        return period.toNanos();
+    }
+
+    long intervalNanos() {
+        return period.toNanos() / permits;
+    }
+}
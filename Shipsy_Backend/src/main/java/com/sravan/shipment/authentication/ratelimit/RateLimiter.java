@@ -0,0 +1,77 @@
+package com.sravan.shipment.authentication.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Token buckets by key, held in a bounded map. A bucket left alone for idle-eviction is dropped;
+ * that is harmless as long as no limit has a longer period, since by then the bucket is full again.
+ */
+@Component
+public class RateLimiter {
+
+    private final Cache<String, TokenBucket> buckets;
+    private final Duration idleEviction;
+
+    public RateLimiter(MeterRegistry meterRegistry,
+                       @Value("${rate-limit.max-keys:100000}") long maxKeys,
+                       @Value("${rate-limit.idle-eviction:10m}") Duration idleEviction) {
+        this.idleEviction = idleEviction;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(idleEviction)
+                // housekeeping on the calling thread, waking a pool thread costs more than the work itself
+                .executor(Runnable::run)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, buckets, "rate-limit.buckets");
+    }
+
+    /**
+     * Takes a permit from every bucket or from none, so a request turned away by one limit does
+     * not use up the others. Returns the wait per bucket, all 0 when the permits were taken.
+     */
+    public long[] tryAcquireAll(List<Permit> permits) {
+        long now = System.nanoTime();
+        List<TokenBucket> targets = new ArrayList<>(permits.size());
+        long[] waits = new long[permits.size()];
+        boolean available = true;
+        for (int i = 0; i < permits.size(); i++) {
+            Permit permit = permits.get(i);
+            TokenBucket bucket = buckets.get(permit.key(), k -> new TokenBucket(now));
+            targets.add(bucket);
+            waits[i] = bucket.waitNanos(permit.limit(), now);
+            available &= waits[i] == 0;
+        }
+        if (!available) {
+            return waits;
+        }
+        for (int i = 0; i < permits.size(); i++) {
+            long wait = targets.get(i).tryAcquire(permits.get(i).limit(), now);
+            if (wait > 0) {
+                // a concurrent request took the last permit in between, hand back what was taken
+                for (int j = 0; j < i; j++) {
+                    targets.get(j).release(permits.get(j).limit());
+                }
+                waits[i] = wait;
+                return waits;
+            }
+        }
+        return waits;
+    }
+
+    public Duration getIdleEviction() {
+        return idleEviction;
+    }
+
+    public record Permit(String key, RateLimit limit) {
+    }
+}
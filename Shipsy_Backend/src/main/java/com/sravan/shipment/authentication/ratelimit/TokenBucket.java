@@ -0,0 +1,45 @@
+package com.sravan.shipment.authentication.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket kept as a single timestamp (the generic cell rate algorithm): the bucket is full
+ * once the clock reaches the stored time, and every permit pushes it one interval further. One
+ * compare-and-set per request, no lock and no refill task.
+ */
+final class TokenBucket {
+
+    // System.nanoTime() at which the bucket is full again
+    private final AtomicLong fullAt;
+
+    TokenBucket(long nowNanos) {
+        this.fullAt = new AtomicLong(nowNanos);
+    }
+
+    // 0 when a permit is available, otherwise the nanos until one is; takes nothing
+    long waitNanos(RateLimit limit, long nowNanos) {
+        return Math.max(0, Math.max(fullAt.get(), nowNanos) + limit.intervalNanos() - nowNanos - limit.periodNanos());
+    }
+
+    // Gives back a permit taken by tryAcquire
+    void release(RateLimit limit) {
+        fullAt.addAndGet(-limit.intervalNanos());
+    }
+
+    // 0 when a permit was taken, otherwise the nanos until one is available
+    long tryAcquire(RateLimit limit, long nowNanos) {
+        long interval = limit.intervalNanos();
+        long period = limit.periodNanos();
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, nowNanos) + interval;
+            long wait = next - nowNanos - period;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
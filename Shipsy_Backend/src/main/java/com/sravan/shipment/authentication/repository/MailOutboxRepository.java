@@ -0,0 +1,34 @@
+package com.sravan.shipment.authentication.repository;
+
+import com.sravan.shipment.authentication.entity.MailOutboxEntity;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface MailOutboxRepository extends JpaRepository<MailOutboxEntity, Long> {
+
+    @Query("select m.id from MailOutboxEntity m where m.status in :statuses and m.nextAttemptAt <= :now order by m.nextAttemptAt")
+    List<Long> findDueIds(@Param("statuses") Collection<MailOutboxEntity.Status> statuses, @Param("now") long now, Limit limit);
+
+    // Succeeds for exactly one worker, the row is then leased to it until leaseUntil
+    @Transactional
+    @Modifying
+    @Query("update MailOutboxEntity m set m.status = :sending, m.nextAttemptAt = :leaseUntil " +
+            "where m.id = :id and m.status in :statuses and m.nextAttemptAt <= :now")
+    int claim(@Param("id") long id,
+              @Param("statuses") Collection<MailOutboxEntity.Status> statuses,
+              @Param("sending") MailOutboxEntity.Status sending,
+              @Param("now") long now,
+              @Param("leaseUntil") long leaseUntil);
+
+    @Transactional
+    @Modifying
+    @Query("delete from MailOutboxEntity m where m.status = :status and m.sentAt < :before")
+    int purge(@Param("status") MailOutboxEntity.Status status, @Param("before") long before);
+}
@@ -3,6 +3,10 @@ package com.sravan.shipment.authentication.repository;
 
 import com.sravan.shipment.authentication.entity.UserEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -11,4 +15,15 @@ public interface UserRepository extends JpaRepository<UserEntity, Long> {
     Optional<UserEntity> findByEmail(String email);
 
     Boolean existsByEmail(String email);
+
+    @Query("select u.tokenVersion from UserEntity u where u.userId = :userId")
+    Optional<Integer> findTokenVersionByUserId(@Param("userId") String userId);
+
+    // Only replaces the hash that was just verified, so a concurrent password reset is kept
+    @Transactional
+    @Modifying
+    @Query("update UserEntity u set u.password = :newPassword where u.email = :email and u.password = :oldPassword")
+    int replacePassword(@Param("email") String email,
+                        @Param("oldPassword") String oldPassword,
+                        @Param("newPassword") String newPassword);
 }
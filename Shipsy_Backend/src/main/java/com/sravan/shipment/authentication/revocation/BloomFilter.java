@@ -0,0 +1,55 @@
+package com.sravan.shipment.authentication.revocation;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size Bloom filter over precomputed 64-bit hashes, using the two halves of the hash to
+ * derive every probe. The bit count is rounded up to a power of two so a probe is a mask, not a
+ * division. Lookups are lock-free; callers serialise put.
+ */
+final class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bitMask;
+    private final int hashCount;
+    private final int capacity;
+    private int insertions;
+
+    BloomFilter(int capacity, double falsePositiveRate) {
+        this.capacity = Math.max(1, capacity);
+        double ln2 = Math.log(2);
+        long bits = (long) Math.ceil(-this.capacity * Math.log(falsePositiveRate) / (ln2 * ln2));
+        long bitCount = Math.max(64, Long.highestOneBit(bits - 1) << 1);
+        this.words = new AtomicLongArray((int) (bitCount >>> 6));
+        this.bitMask = bitCount - 1;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / this.capacity * ln2));
+    }
+
+    void put(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = (h1 + i * h2) & bitMask;
+            int word = (int) (bit >>> 6);
+            words.set(word, words.get(word) | (1L << bit));
+        }
+        insertions++;
+    }
+
+    boolean mightContain(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = (h1 + i * h2) & bitMask;
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Past its capacity the false positive rate climbs above the one it was sized for
+    boolean isFull() {
+        return insertions >= capacity;
+    }
+}
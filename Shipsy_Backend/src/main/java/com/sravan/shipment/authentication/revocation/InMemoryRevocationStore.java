@@ -0,0 +1,46 @@
+package com.sravan.shipment.authentication.revocation;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revocations held in this process only. Fine for a single node and for tests; with more than one
+ * node use the jdbc store, or a logout on one node is not seen by the others.
+ */
+@Component
+@ConditionalOnProperty(name = "jwt.revocation.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryRevocationStore implements RevocationStore {
+
+    private final Map<String, Revocation> revocations = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean revoke(Revocation revocation) {
+        return revocations.putIfAbsent(revocation.tokenId(), revocation) == null;
+    }
+
+    @Override
+    public Optional<Revocation> find(String tokenId) {
+        return Optional.ofNullable(revocations.get(tokenId));
+    }
+
+    @Override
+    public List<Revocation> findRevokedSince(Revocation.Kind kind, long sinceMillis, long nowMillis) {
+        return revocations.values().stream()
+                .filter(r -> r.kind() == kind && r.revokedAtMillis() >= sinceMillis && r.expiresAtMillis() > nowMillis)
+                .sorted(Comparator.comparingLong(Revocation::revokedAtMillis))
+                .toList();
+    }
+
+    @Override
+    public int purgeExpired(long nowMillis) {
+        int before = revocations.size();
+        revocations.values().removeIf(r -> r.expiresAtMillis() <= nowMillis);
+        return before - revocations.size();
+    }
+}
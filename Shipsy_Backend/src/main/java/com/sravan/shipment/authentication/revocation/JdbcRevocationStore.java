@@ -0,0 +1,58 @@
+package com.sravan.shipment.authentication.revocation;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Revocations in the revoked_tokens table, shared by every node on the database. The primary key
+ * on token_id makes revoke a compare-and-set across nodes.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "jwt.revocation.store", havingValue = "jdbc")
+public class JdbcRevocationStore implements RevocationStore {
+
+    private static final RowMapper<Revocation> ROW_MAPPER = (rs, rowNum) -> new Revocation(
+            rs.getString("token_id"),
+            Revocation.Kind.valueOf(rs.getString("kind")),
+            rs.getLong("revoked_at"),
+            rs.getLong("expires_at"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public boolean revoke(Revocation revocation) {
+        try {
+            jdbcTemplate.update("INSERT INTO revoked_tokens (token_id, kind, revoked_at, expires_at) VALUES (?, ?, ?, ?)",
+                    revocation.tokenId(), revocation.kind().name(), revocation.revokedAtMillis(), revocation.expiresAtMillis());
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public Optional<Revocation> find(String tokenId) {
+        return jdbcTemplate.query("SELECT token_id, kind, revoked_at, expires_at FROM revoked_tokens WHERE token_id = ?",
+                ROW_MAPPER, tokenId).stream().findFirst();
+    }
+
+    @Override
+    public List<Revocation> findRevokedSince(Revocation.Kind kind, long sinceMillis, long nowMillis) {
+        return jdbcTemplate.query("SELECT token_id, kind, revoked_at, expires_at FROM revoked_tokens " +
+                        "WHERE kind = ? AND revoked_at >= ? AND expires_at > ? ORDER BY revoked_at",
+                ROW_MAPPER, kind.name(), sinceMillis, nowMillis);
+    }
+
+    @Override
+    public int purgeExpired(long nowMillis) {
+        return jdbcTemplate.update("DELETE FROM revoked_tokens WHERE expires_at <= ?", nowMillis);
+    }
+}
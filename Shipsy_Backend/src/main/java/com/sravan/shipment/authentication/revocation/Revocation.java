@@ -0,0 +1,15 @@
+package com.sravan.shipment.authentication.revocation;
+
+/**
+ * One revoked token id, kept until expiresAtMillis; after that every token carrying the id has
+ * expired anyway.
+ */
+public record Revocation(String tokenId, Kind kind, long revokedAtMillis, long expiresAtMillis) {
+
+    public enum Kind {
+        // a login session, revokes every access and refresh token issued to it
+        SESSION,
+        // a single refresh token that has been rotated
+        REFRESH_TOKEN
+    }
+}
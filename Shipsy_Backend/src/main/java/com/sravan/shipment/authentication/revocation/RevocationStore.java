@@ -0,0 +1,22 @@
+package com.sravan.shipment.authentication.revocation;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Shared record of revoked token ids. Every node writes its revocations here and TokenRevocationList
+ * pulls the sessions revoked on other nodes, so a logout is honoured cluster-wide within one sync.
+ * Select the implementation with jwt.revocation.store (memory or jdbc).
+ */
+public interface RevocationStore {
+
+    // false when the id was already revoked, so only one caller can rotate a given refresh token
+    boolean revoke(Revocation revocation);
+
+    Optional<Revocation> find(String tokenId);
+
+    // Revocations of that kind recorded at or after sinceMillis that are still live at nowMillis
+    List<Revocation> findRevokedSince(Revocation.Kind kind, long sinceMillis, long nowMillis);
+
+    int purgeExpired(long nowMillis);
+}
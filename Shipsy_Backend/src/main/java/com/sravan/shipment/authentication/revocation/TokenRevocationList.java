@@ -0,0 +1,180 @@
+package com.sravan.shipment.authentication.revocation;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory denylist of revoked sessions, checked by JwtRequestFilter on every request. The ids are
+ * split over shards by hash; each shard keeps a Bloom filter in front of a map of id to expiry, so
+ * a session that was never revoked, which is nearly every request, is answered from a few bit
+ * reads without touching the map. Expired ids are dropped and the shard's filter rebuilt.
+ *
+ * <p>Revocations are written through to the RevocationStore and pulled back every sync interval,
+ * which is how sessions revoked on other nodes arrive here.
+ */
+@Slf4j
+@Component
+public class TokenRevocationList {
+
+    private final RevocationStore store;
+    private final Shard[] shards;
+    private final long syncOverlapMillis;
+    private final Counter falsePositives;
+    // when the last sync started, 0 before the first one so it loads every live revocation
+    private volatile long lastSyncAt;
+
+    public TokenRevocationList(RevocationStore store,
+                               MeterRegistry meterRegistry,
+                               @Value("${jwt.revocation.shards:16}") int shardCount,
+                               @Value("${jwt.revocation.expected-sessions:100000}") int expectedSessions,
+                               @Value("${jwt.revocation.false-positive-rate:0.01}") double falsePositiveRate,
+                               @Value("${jwt.revocation.sync-overlap:30s}") Duration syncOverlap) {
+        if (Integer.bitCount(shardCount) != 1) {
+            throw new IllegalArgumentException("jwt.revocation.shards must be a power of two: " + shardCount);
+        }
+        this.store = store;
+        this.shards = new Shard[shardCount];
+        int shardCapacity = Math.max(1, expectedSessions / shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(shardCapacity, falsePositiveRate);
+        }
+        this.syncOverlapMillis = syncOverlap.toMillis();
+        this.falsePositives = meterRegistry.counter("jwt.revocation.false-positives");
+        Gauge.builder("jwt.revocation.sessions", this, TokenRevocationList::size).register(meterRegistry);
+    }
+
+    @PostConstruct
+    void load() {
+        sync();
+    }
+
+    public boolean isSessionRevoked(String sessionId) {
+        long hash = hash(sessionId);
+        Shard shard = shardFor(hash);
+        if (!shard.bloom.mightContain(hash)) {
+            return false;
+        }
+        if (shard.isLive(sessionId, System.currentTimeMillis())) {
+            return true;
+        }
+        falsePositives.increment();
+        return false;
+    }
+
+    // Revokes every token of the session until expiresAtMillis, when the last of them has expired
+    public void revokeSession(String sessionId, long expiresAtMillis) {
+        Revocation revocation = new Revocation(sessionId, Revocation.Kind.SESSION, System.currentTimeMillis(), expiresAtMillis);
+        store.revoke(revocation);
+        add(revocation);
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.sync-interval-ms:5000}")
+    public void sync() {
+        long now = System.currentTimeMillis();
+        // re-reads the tail of the last window, a revocation committed late or on a node with a
+        // slightly slow clock is still picked up
+        long since = lastSyncAt == 0 ? 0 : lastSyncAt - syncOverlapMillis;
+        for (Revocation revocation : store.findRevokedSince(Revocation.Kind.SESSION, since, now)) {
+            add(revocation);
+        }
+        lastSyncAt = now;
+        for (Shard shard : shards) {
+            shard.purge(now);
+        }
+    }
+
+    @Scheduled(cron = "${jwt.revocation.purge-cron:0 45 3 * * *}")
+    public void purgeStore() {
+        int purged = store.purgeExpired(System.currentTimeMillis());
+        if (purged > 0) {
+            log.info("Purged {} expired token revocations", purged);
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Shard shard : shards) {
+            size += shard.expiries.size();
+        }
+        return size;
+    }
+
+    private void add(Revocation revocation) {
+        long hash = hash(revocation.tokenId());
+        shardFor(hash).add(revocation.tokenId(), hash, revocation.expiresAtMillis());
+    }
+
+    private Shard shardFor(long hash) {
+        // the filter probes use the low and high words, the shard comes from the middle bits
+        return shards[(int) (hash >>> 24) & (shards.length - 1)];
+    }
+
+    // String.hashCode spread over 64 bits. It is cached on the id and reused by the map lookup; its
+    // 32 bits put a floor of about entries / 2^32 under the false positive rate, far below the target
+    static long hash(String id) {
+        long h = id.hashCode();
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static final class Shard {
+
+        private final Map<String, Long> expiries = new ConcurrentHashMap<>();
+        private final int minCapacity;
+        private final double falsePositiveRate;
+        private volatile BloomFilter bloom;
+
+        Shard(int minCapacity, double falsePositiveRate) {
+            this.minCapacity = minCapacity;
+            this.falsePositiveRate = falsePositiveRate;
+            this.bloom = new BloomFilter(minCapacity, falsePositiveRate);
+        }
+
+        boolean isLive(String id, long now) {
+            Long expiresAt = expiries.get(id);
+            return expiresAt != null && expiresAt > now;
+        }
+
+        // The map is written before the filter, a reader that sees the bit also sees the entry
+        synchronized void add(String id, long hash, long expiresAt) {
+            if (expiries.put(id, expiresAt) != null) {
+                // already in the filter, the sync overlap re-reads recent revocations
+                return;
+            }
+            if (bloom.isFull()) {
+                rebuild();
+            } else {
+                bloom.put(hash);
+            }
+        }
+
+        synchronized void purge(long now) {
+            if (expiries.values().removeIf(expiresAt -> expiresAt <= now)) {
+                rebuild();
+            }
+        }
+
+        // Bloom filters cannot forget, so a shard that dropped or outgrew entries gets a fresh one
+        private void rebuild() {
+            BloomFilter next = new BloomFilter(Math.max(minCapacity, expiries.size() * 2), falsePositiveRate);
+            for (String id : expiries.keySet()) {
+                next.put(hash(id));
+            }
+            bloom = next;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.sravan.shipment.authentication.security;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The signed-in user. Built from the database at login, where it also carries the password hash
+ * until the check is done, and from verified token claims on every other request. The username is
+ * the email; shipments are owned by the immutable userId. The sessionId ties the request to the
+ * login that issued its token, null when the token predates sessions.
+ */
+@Getter
+@EqualsAndHashCode(of = "userId")
+public class AuthenticatedUser implements UserDetails, CredentialsContainer {
+
+    private final String userId;
+    private final String email;
+    private final int tokenVersion;
+    private final String sessionId;
+    private String password;
+
+    public AuthenticatedUser(String userId, String email, int tokenVersion, String password) {
+        this(userId, email, tokenVersion, null, password);
+    }
+
+    public AuthenticatedUser(String userId, String email, int tokenVersion, String sessionId, String password) {
+        this.userId = userId;
+        this.email = email;
+        this.tokenVersion = tokenVersion;
+        this.sessionId = sessionId;
+        this.password = password;
+    }
+
+    public AuthenticatedUser withPassword(String newPassword) {
+        return new AuthenticatedUser(userId, email, tokenVersion, sessionId, newPassword);
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of();
+    }
+
+    @Override
+    public void eraseCredentials() {
+        password = null;
+    }
+}
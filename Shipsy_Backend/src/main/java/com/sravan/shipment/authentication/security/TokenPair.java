@@ -0,0 +1,15 @@
+package com.sravan.shipment.authentication.security;
+
+import java.util.Date;
+
+/**
+ * The tokens handed out at login and on every refresh. Both belong to the same session; the
+ * refresh token is single use and is replaced by the one in the next pair.
+ */
+public record TokenPair(String email,
+                        String sessionId,
+                        String accessToken,
+                        Date accessTokenExpiresAt,
+                        String refreshToken,
+                        Date refreshTokenExpiresAt) {
+}
@@ -2,27 +2,39 @@ package com.sravan.shipment.authentication.service;
 
 import com.sravan.shipment.authentication.entity.UserEntity;
 import com.sravan.shipment.authentication.repository.UserRepository;
+import com.sravan.shipment.authentication.security.AuthenticatedUser;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.userdetails.User;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
-
+@Slf4j
 @Service
 @RequiredArgsConstructor
-public class AppUserDetailsService implements UserDetailsService {
+public class AppUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
 
 
     @Override
-    public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
+    public AuthenticatedUser loadUserByUsername(String email) throws UsernameNotFoundException {
         UserEntity existingUser = userRepository.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found for the email: "+email));
-        return new User(existingUser.getEmail(), existingUser.getPassword(), new ArrayList<>());
+        return new AuthenticatedUser(existingUser.getUserId(), existingUser.getEmail(),
+                existingUser.getTokenVersion(), existingUser.getPassword());
+    }
+
+    // Called after a successful login when the stored hash is below the configured BCrypt cost
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        if (userRepository.replacePassword(user.getUsername(), user.getPassword(), newPassword) == 0) {
+            log.info("Skipped password hash upgrade for {}, the password changed meanwhile", user.getUsername());
+            return user;
+        }
+        return ((AuthenticatedUser) user).withPassword(newPassword);
     }
 }
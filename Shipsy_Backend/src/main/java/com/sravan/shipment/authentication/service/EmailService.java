@@ -1,14 +1,19 @@
 package com.sravan.shipment.authentication.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
-import org.thymeleaf.TemplateEngine;
-import org.thymeleaf.context.Context;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 
 @Service
@@ -16,43 +21,68 @@ import org.thymeleaf.context.Context;
 public class EmailService {
 
     private final JavaMailSender mailSender;
-    private final TemplateEngine templateEngine;
+    private final EmailTemplateRenderer templateRenderer;
+    private final MeterRegistry meterRegistry;
 
     @Value("${spring.mail.properties.mail.smtp.from}")
     private String fromEmail;
 
     public void sendOtpEmail(String toEmail,String otp) throws MessagingException {
-        Context context=new Context();
-        context.setVariable("email",toEmail);
-        context.setVariable("otp",otp);
+        send(buildOtpEmail(toEmail, otp));
+    }
 
-        String process=templateEngine.process("verify-email",context);
-        MimeMessage mimeMessage=mailSender.createMimeMessage();
-        MimeMessageHelper helper=new MimeMessageHelper(mimeMessage);
+    public void sendResetOtpEmail(String toEmail,String otp) throws MessagingException {
+        send(buildResetOtpEmail(toEmail, otp));
+    }
 
-        helper.setFrom(fromEmail);
-        helper.setTo(toEmail);
-        helper.setSubject("Account Verification OTP");
-        helper.setText(process,true);
+    public MimeMessage buildOtpEmail(String toEmail, String otp) throws MessagingException {
+        return buildMessage(EmailTemplateRenderer.VERIFY_EMAIL, toEmail, otp, "Account Verification OTP");
+    }
 
-        mailSender.send(mimeMessage);
+    public MimeMessage buildResetOtpEmail(String toEmail, String otp) throws MessagingException {
+        return buildMessage(EmailTemplateRenderer.PASSWORD_RESET_EMAIL, toEmail, otp, "Forgot your password?");
     }
 
-    public void sendResetOtpEmail(String toEmail,String otp) throws MessagingException {
-        Context context=new Context();
-        context.setVariable("email",toEmail);
-        context.setVariable("otp",otp);
+    // Sends all messages over one SMTP connection and returns the ones that failed with their cause
+    public Map<MimeMessage, Exception> sendAll(List<MimeMessage> messages) {
+        Map<MimeMessage, Exception> failures = new HashMap<>();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            mailSender.send(messages.toArray(new MimeMessage[0]));
+        } catch (MailSendException ex) {
+            if (ex.getFailedMessages().isEmpty()) {
+                messages.forEach(message -> failures.put(message, ex));
+            } else {
+                ex.getFailedMessages().forEach((message, cause) -> failures.put((MimeMessage) message, cause));
+            }
+        } catch (RuntimeException ex) {
+            messages.forEach(message -> failures.put(message, ex));
+        }
+        sample.stop(meterRegistry.timer("mail.send", "outcome", failures.isEmpty() ? "sent" : "failed"));
+        return failures;
+    }
 
-        String process=templateEngine.process("password-reset-email",context);
+    private void send(MimeMessage message) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failed";
+        try {
+            mailSender.send(message);
+            outcome = "sent";
+        } finally {
+            sample.stop(meterRegistry.timer("mail.send", "outcome", outcome));
+        }
+    }
+
+    private MimeMessage buildMessage(String template, String toEmail, String otp, String subject) throws MessagingException {
+        String process=meterRegistry.timer("mail.render", "template", template)
+                .record(() -> templateRenderer.render(template,toEmail,otp));
         MimeMessage mimeMessage=mailSender.createMimeMessage();
         MimeMessageHelper helper=new MimeMessageHelper(mimeMessage);
 
         helper.setFrom(fromEmail);
         helper.setTo(toEmail);
-        helper.setSubject("Forgot your password?");
+        helper.setSubject(subject);
         helper.setText(process,true);
-
-        System.out.println("Sending password reset email to: " + toEmail);
-        mailSender.send(mimeMessage);
+        return mimeMessage;
     }
 }
@@ -0,0 +1,120 @@
+package com.sravan.shipment.authentication.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+import org.unbescape.html.HtmlEscape;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Renders the OTP mail templates without going through Thymeleaf on every send. At startup each
+ * template is rendered once with marker values, and the output is split into static fragments and
+ * email/otp slots. A send then only escapes the two values and concatenates. A template is used
+ * only if its precompiled output is byte-for-byte equal to Thymeleaf's for a probe with characters
+ * that need escaping. Otherwise that template keeps rendering through Thymeleaf.
+ */
+@Slf4j
+@Component
+public class EmailTemplateRenderer {
+
+    public static final String VERIFY_EMAIL = "verify-email";
+    public static final String PASSWORD_RESET_EMAIL = "password-reset-email";
+
+    // alphanumeric so that escaping leaves them untouched
+    private static final String EMAIL_MARKER = "x7emailslot7x";
+    private static final String OTP_MARKER = "x7otpslot7x";
+
+    private static final String PROBE_EMAIL = "o'neil+\"<probe>&amp;\"@example.com";
+    private static final String PROBE_OTP = "<1&2>'\"";
+
+    private final TemplateEngine templateEngine;
+    private final boolean precompile;
+    private final Map<String, CompiledTemplate> compiled = new ConcurrentHashMap<>();
+
+    public EmailTemplateRenderer(TemplateEngine templateEngine,
+                                 @Value("${mail.templates.precompiled:true}") boolean precompile) {
+        this.templateEngine = templateEngine;
+        this.precompile = precompile;
+    }
+
+    @PostConstruct
+    public void compile() {
+        if (!precompile) {
+            return;
+        }
+        for (String template : List.of(VERIFY_EMAIL, PASSWORD_RESET_EMAIL)) {
+            CompiledTemplate candidate = CompiledTemplate.parse(renderWithThymeleaf(template, EMAIL_MARKER, OTP_MARKER));
+            if (candidate != null && candidate.render(PROBE_EMAIL, PROBE_OTP).equals(renderWithThymeleaf(template, PROBE_EMAIL, PROBE_OTP))) {
+                compiled.put(template, candidate);
+            } else {
+                log.warn("Template {} does not precompile to the same output as Thymeleaf, rendering it per send", template);
+            }
+        }
+        log.info("Precompiled email templates: {}", compiled.keySet());
+    }
+
+    public String render(String template, String email, String otp) {
+        CompiledTemplate precompiled = compiled.get(template);
+        return precompiled != null ? precompiled.render(email, otp) : renderWithThymeleaf(template, email, otp);
+    }
+
+    public String renderWithThymeleaf(String template, String email, String otp) {
+        Context context=new Context();
+        context.setVariable("email",email);
+        context.setVariable("otp",otp);
+        return templateEngine.process(template,context);
+    }
+
+    private record CompiledTemplate(String[] fragments, boolean[] emailSlots, int staticLength) {
+
+        // null when the markers are not found, e.g. a template that does not print the variables
+        static CompiledTemplate parse(String rendered) {
+            List<String> fragments = new ArrayList<>();
+            List<Boolean> slots = new ArrayList<>();
+            int position = 0;
+            int staticLength = 0;
+            while (true) {
+                int email = rendered.indexOf(EMAIL_MARKER, position);
+                int otp = rendered.indexOf(OTP_MARKER, position);
+                if (email < 0 && otp < 0) {
+                    break;
+                }
+                boolean isEmail = otp < 0 || (email >= 0 && email < otp);
+                int start = isEmail ? email : otp;
+                fragments.add(rendered.substring(position, start));
+                staticLength += start - position;
+                slots.add(isEmail);
+                position = start + (isEmail ? EMAIL_MARKER : OTP_MARKER).length();
+            }
+            if (slots.isEmpty()) {
+                return null;
+            }
+            fragments.add(rendered.substring(position));
+            staticLength += rendered.length() - position;
+
+            boolean[] emailSlots = new boolean[slots.size()];
+            for (int i = 0; i < emailSlots.length; i++) {
+                emailSlots[i] = slots.get(i);
+            }
+            return new CompiledTemplate(fragments.toArray(new String[0]), emailSlots, staticLength);
+        }
+
+        String render(String email, String otp) {
+            // same escaping Thymeleaf applies to th:text and attribute values in HTML mode
+            String escapedEmail = HtmlEscape.escapeHtml4Xml(email);
+            String escapedOtp = HtmlEscape.escapeHtml4Xml(otp);
+            StringBuilder html = new StringBuilder(staticLength + emailSlots.length * Math.max(escapedEmail.length(), escapedOtp.length()));
+            for (int i = 0; i < emailSlots.length; i++) {
+                html.append(fragments[i]).append(emailSlots[i] ? escapedEmail : escapedOtp);
+            }
+            return html.append(fragments[emailSlots.length]).toString();
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.sravan.shipment.authentication.service;
+
+import com.sravan.shipment.authentication.entity.MailOutboxEntity;
+import com.sravan.shipment.authentication.entity.MailOutboxEntity.Status;
+import com.sravan.shipment.authentication.repository.MailOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Delivers mail_outbox rows on a small bounded worker pool. Workers claim due rows with a lease,
+ * send them in batches over a single SMTP connection and reschedule failures with exponential
+ * backoff. Rows whose lease runs out (the worker died mid-send) become due again, so nothing
+ * committed to the outbox is lost on a crash.
+ */
+@Slf4j
+@Component
+public class MailOutboxDispatcher {
+
+    private static final List<Status> CLAIMABLE = List.of(Status.PENDING, Status.SENDING);
+
+    private final MailOutboxRepository outboxRepository;
+    private final EmailService emailService;
+    private final ThreadPoolExecutor workers;
+    private final int workerCount;
+    private final AtomicInteger activeDrains = new AtomicInteger();
+    private final AtomicBoolean signalled = new AtomicBoolean();
+    private final Timer queueLatency;
+    private final Counter sent;
+    private final Counter retried;
+    private final Counter failed;
+
+    @Value("${mail.outbox.batch-size:20}")
+    private int batchSize;
+
+    @Value("${mail.outbox.max-attempts:6}")
+    private int maxAttempts;
+
+    @Value("${mail.outbox.backoff-initial:2s}")
+    private Duration backoffInitial;
+
+    @Value("${mail.outbox.backoff-max:10m}")
+    private Duration backoffMax;
+
+    @Value("${mail.outbox.lease:2m}")
+    private Duration lease;
+
+    @Value("${mail.outbox.retention:7d}")
+    private Duration retention;
+
+    public MailOutboxDispatcher(MailOutboxRepository outboxRepository, EmailService emailService, MeterRegistry meterRegistry,
+                                @Value("${mail.outbox.workers:2}") int workerCount) {
+        this.outboxRepository = outboxRepository;
+        this.emailService = emailService;
+        this.workerCount = workerCount;
+        // Platform threads even in virtual-thread mode: JavaMail's transport is synchronized, so a
+        // virtual worker stays pinned to its carrier for the whole SMTP conversation
+        ThreadFactory threadFactory = Thread.ofPlatform().name("mail-outbox-", 1).daemon(true).factory();
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(workerCount), threadFactory);
+        this.workers.allowCoreThreadTimeOut(true);
+        this.queueLatency = Timer.builder("mail.outbox.latency")
+                .description("Time from enqueue to successful SMTP hand-off")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.sent = Counter.builder("mail.outbox.messages").tag("outcome", "sent").register(meterRegistry);
+        this.retried = Counter.builder("mail.outbox.messages").tag("outcome", "retried").register(meterRegistry);
+        this.failed = Counter.builder("mail.outbox.messages").tag("outcome", "failed").register(meterRegistry);
+    }
+
+    // Starts a drain unless every worker is already draining, in which case a running drain picks the work up
+    public void wakeUp() {
+        signalled.set(true);
+        int current;
+        do {
+            current = activeDrains.get();
+            if (current >= workerCount) {
+                return;
+            }
+        } while (!activeDrains.compareAndSet(current, current + 1));
+        try {
+            workers.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            activeDrains.decrementAndGet();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${mail.outbox.poll-interval-ms:5000}")
+    public void poll() {
+        wakeUp();
+    }
+
+    @Scheduled(cron = "${mail.outbox.purge-cron:0 30 3 * * *}")
+    public void purgeSent() {
+        int purged = outboxRepository.purge(Status.SENT, System.currentTimeMillis() - retention.toMillis());
+        if (purged > 0) {
+            log.info("Purged {} sent mails from the outbox", purged);
+        }
+    }
+
+    private void drain() {
+        try {
+            while (true) {
+                signalled.set(false);
+                if (!drainBatch() && !signalled.get()) {
+                    return;
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Mail outbox drain failed", e);
+        } finally {
+            activeDrains.decrementAndGet();
+            if (signalled.get()) {
+                wakeUp();
+            }
+        }
+    }
+
+    // true when there may be more due rows
+    private boolean drainBatch() {
+        long now = System.currentTimeMillis();
+        List<Long> due = outboxRepository.findDueIds(CLAIMABLE, now, Limit.of(batchSize));
+        if (due.isEmpty()) {
+            return false;
+        }
+        List<Long> claimed = new ArrayList<>();
+        for (Long id : due) {
+            if (outboxRepository.claim(id, CLAIMABLE, Status.SENDING, now, now + lease.toMillis()) == 1) {
+                claimed.add(id);
+            }
+        }
+        if (claimed.isEmpty()) {
+            return true;
+        }
+
+        Map<MimeMessage, MailOutboxEntity> messages = new LinkedHashMap<>();
+        for (MailOutboxEntity mail : outboxRepository.findAllById(claimed)) {
+            try {
+                messages.put(build(mail), mail);
+            } catch (MessagingException | RuntimeException e) {
+                recordFailure(mail, e);
+            }
+        }
+        if (!messages.isEmpty()) {
+            Map<MimeMessage, Exception> failures = emailService.sendAll(new ArrayList<>(messages.keySet()));
+            messages.forEach((message, mail) -> {
+                Exception failure = failures.get(message);
+                if (failure == null) {
+                    recordSent(mail);
+                } else {
+                    recordFailure(mail, failure);
+                }
+            });
+        }
+        return true;
+    }
+
+    private MimeMessage build(MailOutboxEntity mail) throws MessagingException {
+        return switch (mail.getMailType()) {
+            case VERIFY_OTP -> emailService.buildOtpEmail(mail.getRecipient(), mail.getOtp());
+            case RESET_OTP -> emailService.buildResetOtpEmail(mail.getRecipient(), mail.getOtp());
+        };
+    }
+
+    private void recordSent(MailOutboxEntity mail) {
+        long now = System.currentTimeMillis();
+        mail.setStatus(Status.SENT);
+        mail.setAttempts(mail.getAttempts() + 1);
+        mail.setSentAt(now);
+        mail.setOtp(null);
+        mail.setLastError(null);
+        outboxRepository.save(mail);
+        sent.increment();
+        queueLatency.record(now - mail.getCreatedAt(), TimeUnit.MILLISECONDS);
+    }
+
+    private void recordFailure(MailOutboxEntity mail, Exception cause) {
+        int attempts = mail.getAttempts() + 1;
+        mail.setAttempts(attempts);
+        mail.setLastError(truncate(String.valueOf(cause.getMessage())));
+        if (attempts >= maxAttempts) {
+            mail.setStatus(Status.FAILED);
+            mail.setOtp(null);
+            failed.increment();
+            log.warn("Giving up on {} mail {} to {} after {} attempts: {}",
+                    mail.getMailType(), mail.getId(), mail.getRecipient(), attempts, cause.getMessage());
+        } else {
+            mail.setStatus(Status.PENDING);
+            mail.setNextAttemptAt(System.currentTimeMillis() + backoff(attempts));
+            retried.increment();
+        }
+        outboxRepository.save(mail);
+    }
+
+    // initial * 2^(attempt-1), capped, with up to 50% jitter so retries of one outage spread out
+    private long backoff(int attempt) {
+        long delay = backoffInitial.toMillis() << Math.min(attempt - 1, 20);
+        delay = Math.min(delay, backoffMax.toMillis());
+        return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+
+    private static String truncate(String message) {
+        return message.length() <= 1000 ? message : message.substring(0, 1000);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+}
@@ -0,0 +1,41 @@
+package com.sravan.shipment.authentication.service;
+
+import com.sravan.shipment.authentication.entity.MailOutboxEntity;
+import com.sravan.shipment.authentication.repository.MailOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@Service
+@RequiredArgsConstructor
+public class MailOutboxService {
+
+    private final MailOutboxRepository outboxRepository;
+    private final MailOutboxDispatcher dispatcher;
+
+    // Persists the mail with the caller's transaction; workers are woken only once it commits
+    public void enqueue(MailOutboxEntity.MailType mailType, String recipient, String otp) {
+        long now = System.currentTimeMillis();
+        outboxRepository.save(MailOutboxEntity.builder()
+                .mailType(mailType)
+                .recipient(recipient)
+                .otp(otp)
+                .status(MailOutboxEntity.Status.PENDING)
+                .attempts(0)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .build());
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatcher.wakeUp();
+                }
+            });
+        } else {
+            dispatcher.wakeUp();
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package com.sravan.shipment.authentication.service;
 
+import com.sravan.shipment.authentication.cache.TokenVersionCache;
+import com.sravan.shipment.authentication.cache.VerifiedTokenCache;
+import com.sravan.shipment.authentication.entity.MailOutboxEntity;
 import com.sravan.shipment.authentication.entity.UserEntity;
 import com.sravan.shipment.authentication.exception.BusinessException;
 import com.sravan.shipment.authentication.dto.ProfileRequest;
@@ -10,6 +13,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.UUID;
 import java.util.concurrent.ThreadLocalRandom;
@@ -20,7 +24,9 @@ public class ProfileServiceImpl implements ProfileService{
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
-    private final EmailService emailService;
+    private final MailOutboxService mailOutboxService;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final TokenVersionCache tokenVersionCache;
 
     @Override
     public ProfileResponse createProfile(ProfileRequest request) {
@@ -40,6 +46,7 @@ public class ProfileServiceImpl implements ProfileService{
     }
 
     @Override
+    @Transactional
     public void sendResetOtp(String email) {
         UserEntity existingEntity = userRepository.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: "+email));
@@ -54,15 +61,9 @@ public class ProfileServiceImpl implements ProfileService{
         existingEntity.setResetOtp(otp);
         existingEntity.setResetOtpExpireAt(expiryTime);
 
-        //save into the database
+        //save into the database, the mail is sent from the outbox after commit
         userRepository.save(existingEntity);
-
-        try{
-            emailService.sendResetOtpEmail(existingEntity.getEmail(), otp);
-        } catch(Exception ex) {
-            throw new BusinessException("Unable to send email", HttpStatus.BAD_REQUEST);
-        }
-
+        mailOutboxService.enqueue(MailOutboxEntity.MailType.RESET_OTP, existingEntity.getEmail(), otp);
     }
 
     @Override
@@ -81,12 +82,16 @@ public class ProfileServiceImpl implements ProfileService{
         existingUser.setPassword(passwordEncoder.encode(newPassword));
         existingUser.setResetOtp(null);
         existingUser.setResetOtpExpireAt(0L);
+        existingUser.setTokenVersion(existingUser.getTokenVersion() + 1);
 
         userRepository.save(existingUser);
+        verifiedTokenCache.invalidateUser(email);
+        tokenVersionCache.invalidate(existingUser.getUserId());
 
     }
 
     @Override
+    @Transactional
     public void sendOtp(String email) {
         UserEntity existingUser = userRepository.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: "+email));
@@ -105,14 +110,9 @@ public class ProfileServiceImpl implements ProfileService{
         existingUser.setVerifyOtp(otp);
         existingUser.setVerifyOtpExpireAt(expiryTime);
 
-        //save to database
+        //save to database, the mail is sent from the outbox after commit
         userRepository.save(existingUser);
-
-        try {
-            emailService.sendOtpEmail(existingUser.getEmail(), otp);
-        } catch (Exception e) {
-            throw new BusinessException("Unable to send email", HttpStatus.BAD_REQUEST);
-        }
+        mailOutboxService.enqueue(MailOutboxEntity.MailType.VERIFY_OTP, existingUser.getEmail(), otp);
     }
 
     @Override
@@ -0,0 +1,94 @@
+package com.sravan.shipment.authentication.service;
+
+import com.sravan.shipment.authentication.cache.TokenVersionCache;
+import com.sravan.shipment.authentication.exception.BusinessException;
+import com.sravan.shipment.authentication.revocation.Revocation;
+import com.sravan.shipment.authentication.revocation.RevocationStore;
+import com.sravan.shipment.authentication.revocation.TokenRevocationList;
+import com.sravan.shipment.authentication.security.AuthenticatedUser;
+import com.sravan.shipment.authentication.security.TokenPair;
+import com.sravan.shipment.authentication.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Issues, rotates and revokes access/refresh token pairs. A refresh token can be exchanged once;
+ * presenting it again means it was copied, so the whole session is revoked. The exception is a
+ * second exchange within reuse-grace, which is two tabs refreshing at the same moment and only
+ * fails that request.
+ */
+@Service
+@RequiredArgsConstructor
+public class TokenService {
+
+    private final JwtUtil jwtUtil;
+    private final RevocationStore revocationStore;
+    private final TokenRevocationList revocationList;
+    private final TokenVersionCache tokenVersionCache;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${jwt.refresh-token.reuse-grace:10s}")
+    private Duration reuseGrace;
+
+    public TokenPair issue(AuthenticatedUser user) {
+        return jwtUtil.generateTokens(user);
+    }
+
+    public TokenPair refresh(String refreshToken) {
+        Claims claims = parse(refreshToken);
+        AuthenticatedUser user = claims == null || !jwtUtil.isRefreshToken(claims) ? null : jwtUtil.toPrincipal(claims);
+        if (user == null || user.getSessionId() == null || claims.getId() == null) {
+            throw rejected("invalid");
+        }
+        if (revocationList.isSessionRevoked(user.getSessionId())
+                || !tokenVersionCache.isCurrent(user.getUserId(), user.getTokenVersion())) {
+            throw rejected("revoked");
+        }
+
+        long now = System.currentTimeMillis();
+        Revocation rotation = new Revocation(claims.getId(), Revocation.Kind.REFRESH_TOKEN, now, claims.getExpiration().getTime());
+        if (!revocationStore.revoke(rotation)) {
+            Optional<Revocation> previous = revocationStore.find(claims.getId());
+            if (previous.isPresent() && now - previous.get().revokedAtMillis() <= reuseGrace.toMillis()) {
+                throw rejected("concurrent");
+            }
+            revocationList.revokeSession(user.getSessionId(), now + jwtUtil.getRefreshTokenTtl().toMillis());
+            throw rejected("reused");
+        }
+        meterRegistry.counter("auth.refresh", "outcome", "rotated").increment();
+        return jwtUtil.generateTokens(user, user.getSessionId());
+    }
+
+    // Ends the session the token belongs to; a token that does not verify has nothing to end
+    public void revokeSession(String token) {
+        Claims claims = parse(token);
+        AuthenticatedUser user = claims == null ? null : jwtUtil.toPrincipal(claims);
+        if (user != null && user.getSessionId() != null) {
+            revocationList.revokeSession(user.getSessionId(), System.currentTimeMillis() + jwtUtil.getRefreshTokenTtl().toMillis());
+        }
+    }
+
+    private Claims parse(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            return jwtUtil.extractAllClaims(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private BusinessException rejected(String outcome) {
+        meterRegistry.counter("auth.refresh", "outcome", outcome).increment();
+        return new BusinessException("Session expired, please log in again", HttpStatus.UNAUTHORIZED);
+    }
+}
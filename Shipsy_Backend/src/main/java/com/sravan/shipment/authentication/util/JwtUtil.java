@@ -1,43 +1,116 @@
 package com.sravan.shipment.authentication.util;
 
+import com.sravan.shipment.authentication.security.AuthenticatedUser;
+import com.sravan.shipment.authentication.security.TokenPair;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 @Component
 public class JwtUtil {
 
+    static final String USER_ID_CLAIM = "uid";
+    static final String TOKEN_VERSION_CLAIM = "ver";
+    static final String SESSION_ID_CLAIM = "sid";
+    static final String TOKEN_TYPE_CLAIM = "typ";
+    static final String REFRESH_TOKEN_TYPE = "refresh";
+
     @Value("${jwt.secret.key}")
     private String SECRET_KEY;
 
-    public String generateToken(UserDetails userDetails) {
+    private final MeterRegistry meterRegistry;
+    private final Timer generateTimer;
+    private final Duration accessTokenTtl;
+    private final Duration refreshTokenTtl;
+
+    public JwtUtil(MeterRegistry meterRegistry,
+                   @Value("${jwt.access-token.ttl:15m}") Duration accessTokenTtl,
+                   @Value("${jwt.refresh-token.ttl:7d}") Duration refreshTokenTtl) {
+        this.meterRegistry = meterRegistry;
+        this.generateTimer = meterRegistry.timer("jwt.generate");
+        this.accessTokenTtl = accessTokenTtl;
+        this.refreshTokenTtl = refreshTokenTtl;
+    }
+
+    // Starts a new session, as on login
+    public TokenPair generateTokens(AuthenticatedUser user) {
+        return generateTokens(user, UUID.randomUUID().toString());
+    }
+
+    public TokenPair generateTokens(AuthenticatedUser user, String sessionId) {
+        return generateTimer.record(() -> {
+            long now = System.currentTimeMillis();
+            Date accessExpiresAt = new Date(now + accessTokenTtl.toMillis());
+            Date refreshExpiresAt = new Date(now + refreshTokenTtl.toMillis());
+            Map<String, Object> refreshClaims = claims(user, sessionId);
+            refreshClaims.put(TOKEN_TYPE_CLAIM, REFRESH_TOKEN_TYPE);
+            return new TokenPair(user.getUsername(), sessionId,
+                    createToken(claims(user, sessionId), user.getUsername(), now, accessExpiresAt),
+                    accessExpiresAt,
+                    createToken(refreshClaims, user.getUsername(), now, refreshExpiresAt),
+                    refreshExpiresAt);
+        });
+    }
+
+    public Duration getAccessTokenTtl() {
+        return accessTokenTtl;
+    }
+
+    public Duration getRefreshTokenTtl() {
+        return refreshTokenTtl;
+    }
+
+    private static Map<String, Object> claims(AuthenticatedUser user, String sessionId) {
         Map<String, Object> claims = new HashMap<>();
-        return createToken(claims, userDetails.getUsername());
+        claims.put(USER_ID_CLAIM, user.getUserId());
+        claims.put(TOKEN_VERSION_CLAIM, user.getTokenVersion());
+        claims.put(SESSION_ID_CLAIM, sessionId);
+        return claims;
     }
 
-    private String createToken(Map<String, Object> claims, String email) {
+    private String createToken(Map<String, Object> claims, String email, long issuedAt, Date expiresAt) {
         return Jwts.builder()
                 .setClaims(claims)
+                .setId(UUID.randomUUID().toString())
                 .setSubject(email)
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + 1000 * 60 * 60)) //10  hour expiration
+                .setIssuedAt(new Date(issuedAt))
+                .setExpiration(expiresAt)
                 .signWith(SignatureAlgorithm.HS256, SECRET_KEY)
                 .compact();
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .setSigningKey(SECRET_KEY)
-                .parseClaimsJws(token)
-                .getBody();
+    // Parses and verifies the signature once, callers read subject and expiry from the result
+    public Claims extractAllClaims(String token) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "valid";
+        try {
+            return Jwts.parser()
+                    .setSigningKey(SECRET_KEY)
+                    .parseClaimsJws(token)
+                    .getBody();
+        } catch (ExpiredJwtException e) {
+            outcome = "expired";
+            throw e;
+        } catch (JwtException | IllegalArgumentException e) {
+            outcome = "invalid";
+            throw e;
+        } finally {
+            sample.stop(meterRegistry.timer("jwt.parse", "outcome", outcome));
+        }
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
@@ -53,12 +126,26 @@ public class JwtUtil {
         return extractClaim(token, Claims::getExpiration);
     }
 
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    public Boolean validateToken(String token, UserDetails userDetails) {
+        return validateToken(extractAllClaims(token), userDetails);
     }
 
-    public Boolean validateToken(String token, UserDetails userDetails) {
-        final String email = extractEmail(token);
-        return (email.equals(userDetails.getUsername()) && !isTokenExpired(token));
+    public Boolean validateToken(Claims claims, UserDetails userDetails) {
+        return (claims.getSubject().equals(userDetails.getUsername()) && !claims.getExpiration().before(new Date()));
+    }
+
+    // The principal straight from verified claims, null for tokens issued before they carried a userId
+    public AuthenticatedUser toPrincipal(Claims claims) {
+        String userId = claims.get(USER_ID_CLAIM, String.class);
+        Integer tokenVersion = claims.get(TOKEN_VERSION_CLAIM, Integer.class);
+        if (userId == null || tokenVersion == null || claims.getSubject() == null) {
+            return null;
+        }
+        return new AuthenticatedUser(userId, claims.getSubject(), tokenVersion, claims.get(SESSION_ID_CLAIM, String.class), null);
+    }
+
+    // Refresh tokens are only good for POST /refresh, never as a bearer token
+    public boolean isRefreshToken(Claims claims) {
+        return REFRESH_TOKEN_TYPE.equals(claims.get(TOKEN_TYPE_CLAIM, String.class));
     }
 }
@@ -0,0 +1,54 @@
+package com.sravan.shipment.authentication.util;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Times the wrapped encoder. BCrypt is deliberately slow, so login and registration latency is
+ * mostly spent here. Checks are tagged with the cost of the stored hash, which shows how many
+ * users are still on an older cost and what each cost takes.
+ */
+public class TimedPasswordEncoder implements PasswordEncoder {
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("\\A\\$2[abxy]?\\$(\\d\\d)\\$");
+
+    private final PasswordEncoder delegate;
+    private final MeterRegistry meterRegistry;
+
+    public TimedPasswordEncoder(PasswordEncoder delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        long started = System.nanoTime();
+        String encoded = delegate.encode(rawPassword);
+        meterRegistry.timer("auth.password", "operation", "encode", "outcome", "encoded", "cost", cost(encoded))
+                .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        return encoded;
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        long started = System.nanoTime();
+        boolean matches = delegate.matches(rawPassword, encodedPassword);
+        meterRegistry.timer("auth.password", "operation", "matches", "outcome", matches ? "match" : "mismatch",
+                "cost", cost(encodedPassword)).record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        return matches;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private static String cost(String encodedPassword) {
+        Matcher matcher = encodedPassword == null ? null : BCRYPT_COST.matcher(encodedPassword);
+        return matcher != null && matcher.find() ? matcher.group(1) : "unknown";
+    }
+}
@@ -0,0 +1,44 @@
+package com.sravan.shipment.cache;
+
+import com.sravan.shipment.dto.ShipmentResponse;
+import com.sravan.shipment.entity.ShipmentEntity;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+// Immutable copy of a shipment row, safe to share between requests and to serialize to a remote cache
+public record CachedShipment(long id, String userId, String shipmentTitle, String shipmentDescription,
+                             String shipmentType, boolean delivered, double cost,
+                             LocalDate shipmentDate) implements Serializable {
+
+    public static CachedShipment of(ShipmentEntity shipment) {
+        return new CachedShipment(shipment.getId(), shipment.getUserId(), shipment.getShipmentTitle(),
+                shipment.getShipmentDescription(), shipment.getShipmentType(), shipment.getDelivered(),
+                shipment.getCost(), shipment.getShipmentDate());
+    }
+
+    public ShipmentEntity toEntity() {
+        return ShipmentEntity.builder()
+                .id(id)
+                .userId(userId)
+                .shipmentTitle(shipmentTitle)
+                .shipmentDescription(shipmentDescription)
+                .shipmentType(shipmentType)
+                .delivered(delivered)
+                .cost(cost)
+                .shipmentDate(shipmentDate)
+                .build();
+    }
+
+    public ShipmentResponse toResponse() {
+        return ShipmentResponse.builder()
+                .id(id)
+                .shipmentTitle(shipmentTitle)
+                .shipmentDescription(shipmentDescription)
+                .shipmentType(shipmentType)
+                .delivered(delivered)
+                .cost(cost)
+                .shipmentDate(shipmentDate)
+                .build();
+    }
+}
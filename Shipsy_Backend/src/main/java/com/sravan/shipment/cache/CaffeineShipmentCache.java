@@ -0,0 +1,38 @@
+package com.sravan.shipment.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.time.Duration;
+
+// In-process cache, bounded by size with W-TinyLFU admission and expiring a fixed time after write
+public class CaffeineShipmentCache implements ShipmentCache {
+
+    private final Cache<Long, CachedShipment> cache;
+
+    public CaffeineShipmentCache(long maxSize, Duration ttl, MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "shipments.by-id");
+    }
+
+    @Override
+    public CachedShipment get(long id) {
+        return cache.getIfPresent(id);
+    }
+
+    @Override
+    public void put(long id, CachedShipment shipment) {
+        cache.put(id, shipment);
+    }
+
+    @Override
+    public void evict(long id) {
+        cache.invalidate(id);
+    }
+}
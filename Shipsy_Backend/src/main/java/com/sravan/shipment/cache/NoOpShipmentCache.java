@@ -0,0 +1,17 @@
+package com.sravan.shipment.cache;
+
+public class NoOpShipmentCache implements ShipmentCache {
+
+    @Override
+    public CachedShipment get(long id) {
+        return null;
+    }
+
+    @Override
+    public void put(long id, CachedShipment shipment) {
+    }
+
+    @Override
+    public void evict(long id) {
+    }
+}
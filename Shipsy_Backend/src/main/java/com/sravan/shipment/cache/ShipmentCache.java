@@ -0,0 +1,16 @@
+package com.sravan.shipment.cache;
+
+/**
+ * Storage behind the shipment read-through cache. The local Caffeine implementation is registered
+ * by ShipmentCacheConfig; a distributed store (Redis, Hazelcast, ...) plugs in by declaring its own
+ * ShipmentCache bean. Implementations must be thread safe and may drop entries at any time.
+ */
+public interface ShipmentCache {
+
+    // null on a miss
+    CachedShipment get(long id);
+
+    void put(long id, CachedShipment shipment);
+
+    void evict(long id);
+}
@@ -0,0 +1,26 @@
+package com.sravan.shipment.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class ShipmentCacheConfig {
+
+    // local | none, ignored when the application defines its own ShipmentCache
+    @Bean
+    @ConditionalOnMissingBean(ShipmentCache.class)
+    public ShipmentCache shipmentCache(@Value("${shipments.cache.type:local}") String type,
+                                       @Value("${shipments.cache.max-size:10000}") long maxSize,
+                                       @Value("${shipments.cache.ttl:30s}") Duration ttl,
+                                       MeterRegistry meterRegistry) {
+        if ("none".equalsIgnoreCase(type)) {
+            return new NoOpShipmentCache();
+        }
+        return new CaffeineShipmentCache(maxSize, ttl, meterRegistry);
+    }
+}
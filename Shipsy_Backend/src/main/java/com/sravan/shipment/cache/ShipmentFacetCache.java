@@ -0,0 +1,85 @@
+package com.sravan.shipment.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sravan.shipment.dto.ShipmentFacetsResponse;
+import com.sravan.shipment.dto.ShipmentFilterRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Short-lived facet counts per user and filter, so refreshing them on every keystroke does not
+ * re-run the aggregate. A user's entries are dropped when they write; the TTL bounds staleness
+ * from writes made through other instances.
+ */
+@Component
+public class ShipmentFacetCache {
+
+    private final Cache<FacetKey, ShipmentFacetsResponse> cache;
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public ShipmentFacetCache(@Value("${shipments.facets.cache-max-size:10000}") long maxSize,
+                              @Value("${shipments.facets.cache-ttl:10s}") Duration ttl,
+                              MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "shipments.facets");
+    }
+
+    // Loaded outside the cache's per-key lock, which would pin a virtual thread for the whole aggregate.
+    // Counts read while an invalidation ran are taken out again rather than kept for the TTL.
+    public ShipmentFacetsResponse get(String userId, ShipmentFilterRequest filter, Supplier<ShipmentFacetsResponse> loader) {
+        FacetKey key = FacetKey.of(userId, filter);
+        ShipmentFacetsResponse cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        long seen = invalidations.get();
+        ShipmentFacetsResponse loaded = loader.get();
+        cache.put(key, loaded);
+        if (invalidations.get() != seen) {
+            cache.asMap().remove(key, loaded);
+        }
+        return loaded;
+    }
+
+    // Drops now and again after commit, like ShipmentReadThroughCache.invalidate
+    public void invalidate(String userId) {
+        evict(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(userId);
+                }
+            });
+        }
+    }
+
+    private void evict(String userId) {
+        invalidations.incrementAndGet();
+        cache.asMap().keySet().removeIf(key -> key.userId().equals(userId));
+    }
+
+    // Only the criteria that change the counts, sort and fields do not
+    private record FacetKey(String userId, String shipmentType, LocalDate startDate, LocalDate endDate,
+                            Double minCost, Double maxCost, String keyword) {
+
+        static FacetKey of(String userId, ShipmentFilterRequest filter) {
+            return new FacetKey(userId, filter.getShipmentType(), filter.getStartDate(), filter.getEndDate(),
+                    filter.getMinCost(), filter.getMaxCost(), filter.getKeyword());
+        }
+    }
+}
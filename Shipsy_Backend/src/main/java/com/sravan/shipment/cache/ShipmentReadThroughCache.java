@@ -0,0 +1,63 @@
+package com.sravan.shipment.cache;
+
+import com.sravan.shipment.repository.ShipmentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+
+/**
+ * Read-through lookups of single shipments by id. Hit and miss counters are kept here rather than
+ * in the store so the hit ratio is reported the same way for every ShipmentCache implementation.
+ */
+@Component
+public class ShipmentReadThroughCache {
+
+    private final ShipmentCache cache;
+    private final ShipmentRepository shipmentRepository;
+    private final Counter hits;
+    private final Counter misses;
+
+    public ShipmentReadThroughCache(ShipmentCache cache, ShipmentRepository shipmentRepository, MeterRegistry meterRegistry) {
+        this.cache = cache;
+        this.shipmentRepository = shipmentRepository;
+        this.hits = Counter.builder("shipments.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("shipments.cache.requests").tag("result", "miss").register(meterRegistry);
+    }
+
+    // Another user's shipment is reported as missing, on a hit as well as on a miss
+    public Optional<CachedShipment> findByIdForUser(long id, String userId) {
+        CachedShipment cached = cache.get(id);
+        if (cached != null) {
+            hits.increment();
+            return cached.userId().equals(userId) ? Optional.of(cached) : Optional.empty();
+        }
+        misses.increment();
+        Optional<CachedShipment> loaded = shipmentRepository.findByIdAndUserId(id, userId).map(CachedShipment::of);
+        loaded.ifPresent(shipment -> cache.put(id, shipment));
+        return loaded;
+    }
+
+    // The cached copy only, whoever owns it; nothing is loaded on a miss
+    public Optional<CachedShipment> peek(long id) {
+        CachedShipment cached = cache.get(id);
+        (cached != null ? hits : misses).increment();
+        return Optional.ofNullable(cached);
+    }
+
+    // Evicts now and again once the surrounding transaction commits, so a read racing the write cannot re-cache the old row
+    public void invalidate(long id) {
+        cache.evict(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.evict(id);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.sravan.shipment.changes;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sravan.shipment.dto.ShipmentChangeEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Sends events to a topic through a ShipmentChangeBroker, keyed by user id so one user's events
+ * land on one partition and stay in seq order.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shipments.changes.sink", havingValue = "broker")
+public class BrokerShipmentChangeSink implements ShipmentChangeSink {
+
+    private final ShipmentChangeBroker broker;
+    private final ObjectMapper objectMapper;
+
+    @Value("${shipments.changes.broker.topic:shipment-changes}")
+    private String topic;
+
+    @Override
+    public void publish(List<ShipmentChangeEvent> events) throws Exception {
+        for (ShipmentChangeEvent event : events) {
+            broker.send(topic, event.getUserId(), objectMapper.writeValueAsBytes(event));
+        }
+        broker.flush();
+    }
+}
@@ -0,0 +1,40 @@
+package com.sravan.shipment.changes;
+
+import com.sravan.shipment.dto.ShipmentChangeEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Keeps the most recent events in memory. For a single node without a consumer, where clients sync
+ * through GET /shipments/changes and the relay only has to mark events published.
+ */
+@Component
+@ConditionalOnProperty(name = "shipments.changes.sink", havingValue = "memory", matchIfMissing = true)
+public class InMemoryShipmentChangeSink implements ShipmentChangeSink {
+
+    private final int capacity;
+    private final Deque<ShipmentChangeEvent> events = new ArrayDeque<>();
+
+    public InMemoryShipmentChangeSink(@Value("${shipments.changes.memory.capacity:10000}") int capacity) {
+        this.capacity = capacity;
+    }
+
+    @Override
+    public synchronized void publish(List<ShipmentChangeEvent> batch) {
+        for (ShipmentChangeEvent event : batch) {
+            if (events.size() == capacity) {
+                events.removeFirst();
+            }
+            events.addLast(event);
+        }
+    }
+
+    public synchronized List<ShipmentChangeEvent> recent() {
+        return List.copyOf(events);
+    }
+}
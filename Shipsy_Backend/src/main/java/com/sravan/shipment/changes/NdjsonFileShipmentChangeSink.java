@@ -0,0 +1,57 @@
+package com.sravan.shipment.changes;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sravan.shipment.dto.ShipmentChangeEvent;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends events to a local NDJSON file, one event per line, for a log shipper to tail. Each batch
+ * is forced to disk before it counts as published.
+ */
+@Component
+@ConditionalOnProperty(name = "shipments.changes.sink", havingValue = "file")
+public class NdjsonFileShipmentChangeSink implements ShipmentChangeSink {
+
+    private final ObjectMapper objectMapper;
+    private final FileChannel channel;
+
+    public NdjsonFileShipmentChangeSink(ObjectMapper objectMapper,
+                                        @Value("${shipments.changes.file.path:shipment-changes.ndjson}") Path path) throws IOException {
+        this.objectMapper = objectMapper;
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    @Override
+    public synchronized void publish(List<ShipmentChangeEvent> events) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(events.size() * 256);
+        for (ShipmentChangeEvent event : events) {
+            objectMapper.writeValue(out, event);
+            out.write('\n');
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(out.toByteArray());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        channel.force(false);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        channel.close();
+    }
+}
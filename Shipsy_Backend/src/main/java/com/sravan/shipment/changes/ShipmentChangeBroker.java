@@ -0,0 +1,14 @@
+package com.sravan.shipment.changes;
+
+/**
+ * A message broker client for BrokerShipmentChangeSink, e.g. a Kafka producer with acks=all and
+ * idempotence on. Provide one as a bean when setting shipments.changes.sink=broker.
+ */
+public interface ShipmentChangeBroker {
+
+    // May buffer; the record is only durable once flush returns
+    void send(String topic, String key, byte[] value) throws Exception;
+
+    // Blocks until every record sent so far is acknowledged, throws if any was not
+    void flush() throws Exception;
+}
@@ -0,0 +1,157 @@
+package com.sravan.shipment.changes;
+
+import com.sravan.shipment.authentication.exception.BusinessException;
+import com.sravan.shipment.dto.ShipmentChangeEvent;
+import com.sravan.shipment.dto.ShipmentChangesResponse;
+import com.sravan.shipment.dto.ShipmentResponse;
+import com.sravan.shipment.entity.ShipmentEntity;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+
+import java.sql.Date;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Transactional outbox for shipment changes. Mutations record their events inside their own
+ * transaction, so an event exists exactly when its change committed. Events are numbered per user
+ * from shipment_change_counters; the bump locks the user's counter row until commit, so a user's
+ * events commit in seq order and without gaps, and a reader that sees seq n has every seq before
+ * it. ShipmentChangeRelay publishes the events, GET /shipments/changes serves them to clients.
+ */
+@Service
+@RequiredArgsConstructor
+public class ShipmentChangeLog {
+
+    static final String COLUMNS = "id, user_id, seq, shipment_id, change_type, shipment_title, shipment_description, " +
+            "shipment_type, delivered, cost, shipment_date, changed_at";
+
+    private static final String INSERT_SQL = "INSERT INTO shipment_changes " +
+            "(user_id, seq, shipment_id, change_type, shipment_title, shipment_description, shipment_type, " +
+            "delivered, cost, shipment_date, changed_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final int[] INSERT_TYPES = {Types.VARCHAR, Types.BIGINT, Types.BIGINT, Types.VARCHAR, Types.VARCHAR,
+            Types.VARCHAR, Types.VARCHAR, Types.BOOLEAN, Types.DOUBLE, Types.DATE, Types.BIGINT};
+
+    static final RowMapper<ShipmentChangeEvent> EVENT_MAPPER = (rs, rowNum) -> {
+        ShipmentChangeEvent.Type type = ShipmentChangeEvent.Type.valueOf(rs.getString("change_type"));
+        long shipmentId = rs.getLong("shipment_id");
+        ShipmentResponse shipment = type == ShipmentChangeEvent.Type.DELETED ? null : ShipmentResponse.builder()
+                .id(shipmentId)
+                .shipmentTitle(rs.getString("shipment_title"))
+                .shipmentDescription(rs.getString("shipment_description"))
+                .shipmentType(rs.getString("shipment_type"))
+                .delivered(rs.getBoolean("delivered"))
+                .cost(rs.getDouble("cost"))
+                .shipmentDate(rs.getDate("shipment_date").toLocalDate())
+                .build();
+        return ShipmentChangeEvent.builder()
+                .seq(rs.getLong("seq"))
+                .userId(rs.getString("user_id"))
+                .shipmentId(shipmentId)
+                .type(type)
+                .changedAt(rs.getLong("changed_at"))
+                .shipment(shipment)
+                .build();
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void recordCreated(String userId, List<ShipmentEntity> shipments) {
+        append(userId, ShipmentChangeEvent.Type.CREATED, shipments);
+    }
+
+    public void recordUpdated(String userId, List<ShipmentEntity> shipments) {
+        append(userId, ShipmentChangeEvent.Type.UPDATED, shipments);
+    }
+
+    // For writes that went straight to the table, the rows are read back for their current state
+    public void recordUpdated(String userId, Collection<Long> shipmentIds) {
+        if (shipmentIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(shipmentIds));
+        List<Object> args = new ArrayList<>(ids.size() + 1);
+        args.add(userId);
+        args.addAll(ids);
+        List<ShipmentEntity> rows = jdbcTemplate.query(
+                "SELECT id, shipment_title, shipment_description, shipment_type, delivered, cost, shipment_date " +
+                        "FROM shipments WHERE user_id = ? AND id IN (" + String.join(", ", Collections.nCopies(ids.size(), "?")) + ") ORDER BY id",
+                (rs, rowNum) -> ShipmentEntity.builder()
+                        .id(rs.getLong("id"))
+                        .userId(userId)
+                        .shipmentTitle(rs.getString("shipment_title"))
+                        .shipmentDescription(rs.getString("shipment_description"))
+                        .shipmentType(rs.getString("shipment_type"))
+                        .delivered(rs.getBoolean("delivered"))
+                        .cost(rs.getDouble("cost"))
+                        .shipmentDate(rs.getDate("shipment_date").toLocalDate())
+                        .build(),
+                args.toArray());
+        append(userId, ShipmentChangeEvent.Type.UPDATED, rows);
+    }
+
+    public void recordDeleted(String userId, long shipmentId) {
+        append(userId, ShipmentChangeEvent.Type.DELETED, List.of(ShipmentEntity.builder().id(shipmentId).userId(userId).build()));
+    }
+
+    /**
+     * The user's events after since, oldest first. A since older than the retained events gets a
+     * 410: the client has missed changes and must download its shipments again.
+     */
+    public ShipmentChangesResponse findChanges(String userId, long since, int limit) {
+        long current = jdbcTemplate.query("SELECT last_seq FROM shipment_change_counters WHERE user_id = ?",
+                (rs, rowNum) -> rs.getLong(1), userId).stream().findFirst().orElse(0L);
+        if (since < current) {
+            Long oldest = jdbcTemplate.queryForObject("SELECT MIN(seq) FROM shipment_changes WHERE user_id = ?", Long.class, userId);
+            if (oldest == null || oldest > since + 1) {
+                throw new BusinessException("Changes since " + since + " are no longer kept, download the shipments again", HttpStatus.GONE);
+            }
+        }
+
+        List<ShipmentChangeEvent> changes = limit == 0 || since >= current ? List.of() : jdbcTemplate.query(
+                "SELECT " + COLUMNS + " FROM shipment_changes WHERE user_id = ? AND seq > ? ORDER BY seq LIMIT ?",
+                EVENT_MAPPER, userId, since, limit);
+        long lastSeq = changes.isEmpty() ? since : changes.get(changes.size() - 1).getSeq();
+        return ShipmentChangesResponse.builder()
+                .changes(changes)
+                .lastSeq(lastSeq)
+                .currentSeq(current)
+                .hasMore(lastSeq < current)
+                .build();
+    }
+
+    private void append(String userId, ShipmentChangeEvent.Type type, List<ShipmentEntity> shipments) {
+        if (shipments.isEmpty()) {
+            return;
+        }
+        int count = shipments.size();
+        jdbcTemplate.update("INSERT INTO shipment_change_counters (user_id, last_seq) VALUES (?, ?) " +
+                "ON DUPLICATE KEY UPDATE last_seq = last_seq + ?", userId, count, count);
+        long lastSeq = jdbcTemplate.queryForObject("SELECT last_seq FROM shipment_change_counters WHERE user_id = ?", Long.class, userId);
+
+        long seq = lastSeq - count;
+        long now = System.currentTimeMillis();
+        boolean deleted = type == ShipmentChangeEvent.Type.DELETED;
+        List<Object[]> rows = new ArrayList<>(count);
+        for (ShipmentEntity shipment : shipments) {
+            rows.add(new Object[]{
+                    userId, ++seq, shipment.getId(), type.name(),
+                    deleted ? null : shipment.getShipmentTitle(),
+                    deleted ? null : shipment.getShipmentDescription(),
+                    deleted ? null : shipment.getShipmentType(),
+                    deleted ? null : shipment.getDelivered(),
+                    deleted ? null : shipment.getCost(),
+                    deleted ? null : Date.valueOf(shipment.getShipmentDate()),
+                    now});
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows, INSERT_TYPES);
+    }
+}
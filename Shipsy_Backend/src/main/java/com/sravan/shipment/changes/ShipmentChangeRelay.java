@@ -0,0 +1,112 @@
+package com.sravan.shipment.changes;
+
+import com.sravan.shipment.dto.ShipmentChangeEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes committed shipment_changes rows to the ShipmentChangeSink and marks them published.
+ * One instance relays at a time, the one holding the lease row in shipment_change_relay, so events
+ * leave in id order and a user's events in seq order. A crash between publishing and marking sends
+ * the batch again, delivery is at least once and consumers drop a seq they already have.
+ */
+@Slf4j
+@Component
+public class ShipmentChangeRelay {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ShipmentChangeSink sink;
+    private final String owner = UUID.randomUUID().toString();
+    private final Counter published;
+    private final Timer lag;
+
+    @Value("${shipments.changes.relay.batch-size:500}")
+    private int batchSize;
+
+    @Value("${shipments.changes.relay.lease:30s}")
+    private Duration lease;
+
+    @Value("${shipments.changes.retention:7d}")
+    private Duration retention;
+
+    public ShipmentChangeRelay(JdbcTemplate jdbcTemplate, ShipmentChangeSink sink, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.sink = sink;
+        this.published = meterRegistry.counter("shipments.changes.published");
+        this.lag = Timer.builder("shipments.changes.lag")
+                .description("Time from a shipment change committing to its event being published")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${shipments.changes.relay.poll-interval-ms:1000}")
+    public void relay() {
+        try {
+            while (acquireLease() && relayBatch()) {
+                // a full batch, there may be more behind it
+            }
+        } catch (RuntimeException e) {
+            log.error("Shipment change relay failed", e);
+        }
+    }
+
+    @Scheduled(cron = "${shipments.changes.purge-cron:0 45 3 * * *}")
+    public void purgePublished() {
+        int purged = jdbcTemplate.update("DELETE FROM shipment_changes WHERE published_at IS NOT NULL AND changed_at < ?",
+                System.currentTimeMillis() - retention.toMillis());
+        if (purged > 0) {
+            log.info("Purged {} published shipment changes", purged);
+        }
+    }
+
+    // Takes the lease when it is free or expired, and extends it when already held
+    private boolean acquireLease() {
+        long now = System.currentTimeMillis();
+        return jdbcTemplate.update("UPDATE shipment_change_relay SET owner = ?, lease_until = ? " +
+                "WHERE name = 'shipments' AND (owner = ? OR lease_until < ?)", owner, now + lease.toMillis(), owner, now) == 1;
+    }
+
+    // true when the batch was full
+    private boolean relayBatch() {
+        List<Pending> pending = jdbcTemplate.query("SELECT " + ShipmentChangeLog.COLUMNS +
+                        " FROM shipment_changes WHERE published_at IS NULL ORDER BY id LIMIT ?",
+                (rs, rowNum) -> new Pending(rs.getLong("id"), ShipmentChangeLog.EVENT_MAPPER.mapRow(rs, rowNum)), batchSize);
+        if (pending.isEmpty()) {
+            return false;
+        }
+        try {
+            sink.publish(pending.stream().map(Pending::event).toList());
+        } catch (Exception e) {
+            log.warn("Publishing {} shipment changes failed, retrying on the next poll: {}", pending.size(), e.getMessage());
+            return false;
+        }
+
+        long now = System.currentTimeMillis();
+        List<Object> args = new ArrayList<>(pending.size() + 1);
+        args.add(now);
+        for (Pending row : pending) {
+            args.add(row.id());
+            lag.record(now - row.event().getChangedAt(), TimeUnit.MILLISECONDS);
+        }
+        jdbcTemplate.update("UPDATE shipment_changes SET published_at = ? WHERE id IN (" +
+                String.join(", ", Collections.nCopies(pending.size(), "?")) + ")", args.toArray());
+        published.increment(pending.size());
+        return pending.size() == batchSize;
+    }
+
+    private record Pending(long id, ShipmentChangeEvent event) {
+    }
+}
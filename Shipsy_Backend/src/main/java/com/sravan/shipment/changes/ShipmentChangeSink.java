@@ -0,0 +1,16 @@
+package com.sravan.shipment.changes;
+
+import com.sravan.shipment.dto.ShipmentChangeEvent;
+
+import java.util.List;
+
+/**
+ * Where ShipmentChangeRelay publishes change events, chosen by shipments.changes.sink. A batch
+ * counts as published once publish returns, so it must only return when the events are durable at
+ * the destination; throwing leaves the batch unpublished and it is sent again on the next poll.
+ */
+public interface ShipmentChangeSink {
+
+    // events in seq order per user
+    void publish(List<ShipmentChangeEvent> events) throws Exception;
+}
@@ -0,0 +1,73 @@
+package com.sravan.shipment.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * Puts an AdmissionControlledDataSource in front of the pool. On by default together with
+ * virtual threads, since platform threads are already capped by Tomcat's max threads.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "db.admission.enabled", havingValue = "true")
+public class DataSourceAdmissionConfig {
+
+    @Bean
+    public static BeanPostProcessor dataSourceAdmissionPostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof AdmissionControlledDataSource) {
+                    return bean;
+                }
+                int poolSize = hikariPoolSize(dataSource);
+                int maxWaiters = environment.getProperty("db.admission.max-waiters", Integer.class, 4 * poolSize);
+                Duration acquireTimeout = environment.getProperty("db.admission.acquire-timeout", Duration.class, Duration.ofSeconds(2));
+
+                AdmissionControlledDataSource guarded = new AdmissionControlledDataSource(dataSource, poolSize + maxWaiters, acquireTimeout);
+                log.info("Database admission limit for {}: {} connections + {} waiters, {} wait",
+                        beanName, poolSize, maxWaiters, acquireTimeout);
+                return guarded;
+            }
+        };
+    }
+
+    // Looks through wrappers such as the replica routing proxy
+    private static int hikariPoolSize(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            }
+        } catch (SQLException e) {
+            log.debug("Could not unwrap {} to find its pool size", dataSource, e);
+        }
+        return 10;
+    }
+
+    @Bean
+    public MeterBinder dataSourceAdmissionMetrics(DataSource dataSource) {
+        return registry -> {
+            if (!(dataSource instanceof AdmissionControlledDataSource guarded)) {
+                return;
+            }
+            Gauge.builder("db.admission.in-flight", guarded, AdmissionControlledDataSource::getInFlight)
+                    .description("Threads holding or waiting for a pooled connection")
+                    .register(registry);
+            FunctionCounter.builder("db.admission.rejected", guarded, AdmissionControlledDataSource::getRejected)
+                    .description("Connection requests turned away at the admission limit")
+                    .register(registry);
+        };
+    }
+}
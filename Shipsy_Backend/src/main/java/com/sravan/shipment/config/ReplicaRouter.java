@@ -0,0 +1,180 @@
+package com.sravan.shipment.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Picks the database for each new connection. Read-only transactions of a signed-in user go to a
+ * healthy replica, round robin. Everything else goes to the primary: writes, background jobs,
+ * requests before authentication, and a user's reads for the read-your-writes window after one of
+ * their transactions committed a write. The window is tracked per instance, so with several app
+ * instances behind a load balancer it only holds for requests that land on the same one.
+ */
+@Slf4j
+public class ReplicaRouter implements MeterBinder {
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final Cache<String, Boolean> recentWriters;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Map<String, Counter> routed = new ConcurrentHashMap<>();
+    private MeterRegistry meterRegistry;
+
+    public ReplicaRouter(DataSource primary, Map<String, DataSource> replicas, Duration readYourWritesWindow) {
+        this.primary = primary;
+        this.replicas = replicas.entrySet().stream().map(entry -> new Replica(entry.getKey(), entry.getValue())).toList();
+        this.recentWriters = Caffeine.newBuilder().expireAfterWrite(readYourWritesWindow).build();
+    }
+
+    public DataSource getPrimary() {
+        return primary;
+    }
+
+    public Connection getConnection() throws SQLException {
+        boolean readOnly = TransactionSynchronizationManager.isActualTransactionActive()
+                && TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        String user = currentUser();
+        if (!readOnly) {
+            if (user != null) {
+                recordWrite(user);
+            }
+            return count("primary", "write", primary.getConnection());
+        }
+        if (user == null) {
+            return count("primary", "anonymous", primary.getConnection());
+        }
+        if (recentWriters.getIfPresent(user) != null) {
+            return count("primary", "recent-write", primary.getConnection());
+        }
+        for (int attempt = 0; attempt < replicas.size(); attempt++) {
+            Replica replica = replicas.get(Math.floorMod(next.getAndIncrement(), replicas.size()));
+            if (!replica.healthy) {
+                continue;
+            }
+            try {
+                return count(replica.name, "read", replica.dataSource.getConnection());
+            } catch (SQLException e) {
+                replica.markDown(e);
+            }
+        }
+        return count("primary", "no-replica", primary.getConnection());
+    }
+
+    @Scheduled(fixedDelayString = "${db.replicas.health-check-interval-ms:5000}")
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection()) {
+                if (connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                    replica.markUp();
+                } else {
+                    replica.markDown(new SQLException("connection is not valid"));
+                }
+            } catch (SQLException e) {
+                replica.markDown(e);
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.meterRegistry = registry;
+        Gauge.builder("db.replicas.healthy", replicas, list -> list.stream().filter(replica -> replica.healthy).count())
+                .description("Read replicas currently receiving read-only transactions")
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+        if (primary instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+
+    // The window starts when the write is visible on the primary, not when the transaction began
+    private void recordWrite(String user) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    recentWriters.put(user, Boolean.TRUE);
+                }
+            });
+        } else {
+            recentWriters.put(user, Boolean.TRUE);
+        }
+    }
+
+    private Connection count(String target, String reason, Connection connection) {
+        if (meterRegistry != null) {
+            routed.computeIfAbsent(target + "/" + reason, key -> Counter.builder("db.routing.connections")
+                    .tag("target", target)
+                    .tag("reason", reason)
+                    .register(meterRegistry)).increment();
+        }
+        return connection;
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated() || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+
+    private static final class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy = true;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        private void markUp() {
+            if (!healthy) {
+                healthy = true;
+                log.info("Read replica {} is back, routing reads to it again", name);
+            }
+        }
+
+        private void markDown(SQLException e) {
+            if (healthy) {
+                healthy = false;
+                log.warn("Read replica {} is unavailable, reads fall back to the other replicas or the primary: {}", name, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.sravan.shipment.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replaces the auto-configured pool with a primary pool plus one pool per read replica, routed by
+ * ReplicaRouter. Only active when db.replicas.urls is set. The replicas use the primary's Hikari
+ * settings and credentials unless db.replicas.username/password are given.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "db.replicas.urls")
+public class ReplicaRoutingConfig {
+
+    @Bean
+    public ReplicaRouter replicaRouter(DataSourceProperties properties, Environment environment, MeterRegistry meterRegistry,
+                                       @Value("${db.replicas.urls}") List<String> urls,
+                                       @Value("${db.replicas.read-your-writes:5s}") Duration readYourWritesWindow,
+                                       @Value("${db.replicas.connection-timeout:1s}") Duration replicaConnectionTimeout) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        configure(primary, "primary", environment, meterRegistry);
+
+        String username = environment.getProperty("db.replicas.username", properties.determineUsername());
+        String password = environment.getProperty("db.replicas.password", properties.determinePassword());
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (String url : urls) {
+            String name = "replica-" + (replicas.size() + 1);
+            HikariDataSource replica = new HikariDataSource();
+            replica.setJdbcUrl(url.trim());
+            replica.setUsername(username);
+            replica.setPassword(password);
+            replica.setDriverClassName(properties.determineDriverClassName());
+            configure(replica, name, environment, meterRegistry);
+            replica.setReadOnly(true);
+            // short, so a dead replica neither stalls reads nor the health check before it is taken out
+            replica.setConnectionTimeout(replicaConnectionTimeout.toMillis());
+            // an unreachable replica must not stop startup, the health check takes it out of rotation
+            replica.setInitializationFailTimeout(-1);
+            replicas.put(name, replica);
+        }
+        log.info("Routing read-only transactions to {} replica(s), read-your-writes window {}", replicas.size(), readYourWritesWindow);
+        return new ReplicaRouter(primary, replicas, readYourWritesWindow);
+    }
+
+    @Bean
+    public DataSource dataSource(ReplicaRouter replicaRouter) {
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(replicaRouter));
+    }
+
+    private static void configure(HikariDataSource pool, String name, Environment environment, MeterRegistry meterRegistry) {
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        pool.setPoolName(name);
+        // the pools are not beans, so Boot's pool metrics would not see them
+        pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+    }
+}
@@ -0,0 +1,45 @@
+package com.sravan.shipment.config;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * DataSource view of a ReplicaRouter. Must sit behind a LazyConnectionDataSourceProxy: the
+ * transaction's read-only flag is only known once the transaction has started, after the JPA
+ * transaction manager asked for its connection.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    private final ReplicaRouter router;
+
+    public ReplicaRoutingDataSource(ReplicaRouter router) {
+        this.router = router;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return router.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return router.getPrimary().getConnection(username, password);
+    }
+
+    // Lets pool lookups such as the admission limit see the primary's Hikari pool
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return (T) this;
+        }
+        return router.getPrimary().unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || router.getPrimary().isWrapperFor(iface);
+    }
+}
@@ -0,0 +1,47 @@
+package com.sravan.shipment.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Registers the ConcurrencyLimitFilter just ahead of the security filter chain. Sized a few times
+ * the connection pool, so excess load is shed at the door instead of timing out inside Hikari.
+ */
+@Configuration
+@ConditionalOnProperty(name = "http.admission.enabled", havingValue = "true", matchIfMissing = true)
+public class RequestAdmissionConfig {
+
+    @Bean
+    public ConcurrencyLimitFilter concurrencyLimitFilter(@Value("${http.admission.max-concurrent:100}") int maxConcurrent,
+                                                         @Value("${http.admission.acquire-timeout:200ms}") Duration acquireTimeout) {
+        return new ConcurrencyLimitFilter(maxConcurrent, acquireTimeout);
+    }
+
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilterRegistration(ConcurrencyLimitFilter filter) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+        return registration;
+    }
+
+    @Bean
+    public MeterBinder concurrencyLimitMetrics(ConcurrencyLimitFilter filter) {
+        return registry -> {
+            Gauge.builder("http.admission.in-flight", filter, ConcurrencyLimitFilter::getInFlight)
+                    .description("Requests being processed or waiting for a slot")
+                    .register(registry);
+            FunctionCounter.builder("http.admission.rejected", filter, ConcurrencyLimitFilter::getRejected)
+                    .description("Requests turned away at the concurrency limit")
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,132 @@
+package com.sravan.shipment.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Reports at startup whether the indexes the shipment filters rely on exist, and optionally
+ * EXPLAINs every filter shape built by ShipmentServiceImpl.filterShipments to flag full table scans.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SchemaIndexVerifier implements ApplicationRunner {
+
+    private static final String TABLE = "shipments";
+
+    private static final Map<String, List<String>> EXPECTED_INDEXES = Map.of(
+            "idx_shipments_user_date_id", List.of("user_id", "shipment_date", "id"),
+            "idx_shipments_user_type_date", List.of("user_id", "shipment_type", "shipment_date"),
+            "idx_shipments_user_cost", List.of("user_id", "cost")
+    );
+
+    // The keyword filter is left out: LIKE '%kw%' cannot use a B-tree index
+    private static final Map<String, String> FILTER_SHAPES = new LinkedHashMap<>();
+    static {
+        FILTER_SHAPES.put("user", "user_id = 'u'");
+        FILTER_SHAPES.put("user+type", "user_id = 'u' AND shipment_type = 'AIR'");
+        FILTER_SHAPES.put("user+date", "user_id = 'u' AND shipment_date >= '2024-01-01' AND shipment_date <= '2024-12-31'");
+        FILTER_SHAPES.put("user+type+date", "user_id = 'u' AND shipment_type = 'AIR' AND shipment_date >= '2024-01-01'");
+        FILTER_SHAPES.put("user+cost", "user_id = 'u' AND cost >= 10 AND cost <= 100");
+        FILTER_SHAPES.put("user+type+cost", "user_id = 'u' AND shipment_type = 'AIR' AND cost >= 10");
+        FILTER_SHAPES.put("user+date+cost", "user_id = 'u' AND shipment_date >= '2024-01-01' AND cost <= 100");
+    }
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${shipments.schema.verify-indexes:true}")
+    private boolean verifyIndexes;
+
+    @Value("${shipments.schema.explain-filters:false}")
+    private boolean explainFilters;
+
+    @Override
+    public void run(ApplicationArguments args) throws SQLException {
+        if (verifyIndexes) {
+            List<String> missing = findMissingIndexes();
+            if (missing.isEmpty()) {
+                log.info("All {} expected indexes on {} are present", EXPECTED_INDEXES.size(), TABLE);
+            } else {
+                log.warn("Missing indexes on {}: {}. Filter queries will scan the table.", TABLE, missing);
+            }
+        }
+        if (explainFilters) {
+            explainFilterShapes();
+        }
+    }
+
+    public List<String> findMissingIndexes() throws SQLException {
+        Map<String, List<String>> actual = readIndexColumns();
+        List<String> missing = new ArrayList<>();
+        EXPECTED_INDEXES.forEach((name, columns) -> {
+            boolean covered = actual.values().stream().anyMatch(existing -> startsWith(existing, columns));
+            if (!covered) {
+                missing.add(name + columns);
+            }
+        });
+        return missing;
+    }
+
+    private Map<String, List<String>> readIndexColumns() throws SQLException {
+        Map<String, TreeMap<Short, String>> byIndex = new LinkedHashMap<>();
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            String table = metaData.storesUpperCaseIdentifiers() ? TABLE.toUpperCase() : TABLE;
+            try (ResultSet rs = metaData.getIndexInfo(connection.getCatalog(), connection.getSchema(), table, false, true)) {
+                while (rs.next()) {
+                    String indexName = rs.getString("INDEX_NAME");
+                    String column = rs.getString("COLUMN_NAME");
+                    if (indexName == null || column == null) {
+                        continue;
+                    }
+                    byIndex.computeIfAbsent(indexName, k -> new TreeMap<>())
+                            .put(rs.getShort("ORDINAL_POSITION"), column.toLowerCase());
+                }
+            }
+        }
+        Map<String, List<String>> result = new LinkedHashMap<>();
+        byIndex.forEach((name, columns) -> result.put(name, new ArrayList<>(columns.values())));
+        return result;
+    }
+
+    private void explainFilterShapes() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            String product = connection.getMetaData().getDatabaseProductName();
+            if (!product.toLowerCase().contains("mysql")) {
+                log.info("Skipping filter EXPLAIN check, unsupported database: {}", product);
+                return;
+            }
+        }
+        FILTER_SHAPES.forEach((shape, where) -> {
+            List<Map<String, Object>> plan = jdbcTemplate.queryForList("EXPLAIN SELECT id FROM " + TABLE + " WHERE " + where);
+            for (Map<String, Object> row : plan) {
+                if ("ALL".equalsIgnoreCase(String.valueOf(row.get("type")))) {
+                    log.warn("Filter shape [{}] runs a full table scan on {}", shape, TABLE);
+                } else {
+                    log.info("Filter shape [{}] uses index {} ({})", shape, row.get("key"), row.get("type"));
+                }
+            }
+        });
+    }
+
+    private static boolean startsWith(List<String> actual, List<String> expected) {
+        return actual.size() >= expected.size() && actual.subList(0, expected.size()).equals(expected);
+    }
+}
@@ -0,0 +1,197 @@
+package com.sravan.shipment.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Streams jdk.VirtualThreadPinned JFR events while running on virtual threads. A pinned virtual
+ * thread blocks inside a synchronized block or native frame and holds on to its carrier thread,
+ * which quietly shrinks the carrier pool. Events are grouped by the first application frame on the
+ * stack and reported periodically. A self-test at startup checks that pinning is detected and
+ * whether a database round trip pins.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final String APP_PACKAGE = "com.sravan.";
+    private static final String CONTROL_PROBE = "pinning-probe-control";
+    private static final String DB_PROBE = "pinning-probe-db";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Timer pinnedTimer;
+    private final Map<String, Site> sites = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> probeEvents = new ConcurrentHashMap<>();
+    private final AtomicLong reportedEvents = new AtomicLong();
+    private RecordingStream stream;
+
+    @Value("${threads.pinning.threshold:20ms}")
+    private Duration threshold;
+
+    @Value("${threads.pinning.report-top:10}")
+    private int reportTop;
+
+    public VirtualThreadPinningMonitor(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.pinnedTimer = Timer.builder("jvm.threads.virtual.pinned")
+                .description("Virtual threads that blocked while pinned to their carrier")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::record);
+        stream.startAsync();
+    }
+
+    @PreDestroy
+    public void stop() {
+        stream.close();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void selfTest() {
+        Thread.ofVirtual().name("pinning-self-test").start(this::runSelfTest);
+    }
+
+    @Scheduled(fixedDelayString = "${threads.pinning.report-interval-ms:300000}")
+    public void report() {
+        long total = sites.values().stream().mapToLong(site -> site.count.sum()).sum();
+        if (total == reportedEvents.getAndSet(total)) {
+            return;
+        }
+        StringBuilder report = new StringBuilder("Virtual thread pinning, ").append(total).append(" events over ")
+                .append(threshold.toMillis()).append(" ms since start:");
+        topSites().forEach(site -> report.append(String.format("%n  %6d x  %8.1f ms total  %s",
+                site.count.sum(), site.nanos.sum() / 1e6, site.location)));
+        log.warn(report.toString());
+    }
+
+    public List<Site> topSites() {
+        return sites.values().stream()
+                .sorted(Comparator.comparingLong((Site site) -> site.nanos.sum()).reversed())
+                .limit(reportTop)
+                .toList();
+    }
+
+    private void record(RecordedEvent event) {
+        String threadName = event.getThread() == null ? null : event.getThread().getJavaName();
+        if (threadName != null && threadName.startsWith("pinning-probe-")) {
+            probeEvents.computeIfAbsent(threadName, name -> new LongAdder()).increment();
+            return;
+        }
+        long nanos = event.getDuration().toNanos();
+        pinnedTimer.record(nanos, TimeUnit.NANOSECONDS);
+        Site site = sites.computeIfAbsent(location(event.getStackTrace()), Site::new);
+        site.count.increment();
+        site.nanos.add(nanos);
+    }
+
+    // first application frame, with the frame that actually blocked when that differs
+    private static String location(RecordedStackTrace stackTrace) {
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return "unknown";
+        }
+        List<RecordedFrame> frames = stackTrace.getFrames();
+        String top = describe(frames.get(0));
+        for (RecordedFrame frame : frames) {
+            if (frame.getMethod().getType().getName().startsWith(APP_PACKAGE)) {
+                String app = describe(frame);
+                return app.equals(top) ? app : app + " -> " + top;
+            }
+        }
+        return top;
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+
+    private void runSelfTest() {
+        try {
+            Object monitor = new Object();
+            long sleepMillis = threshold.toMillis() * 2 + 1;
+            Thread control = Thread.ofVirtual().name(CONTROL_PROBE).start(() -> {
+                synchronized (monitor) {
+                    sleepQuietly(sleepMillis);
+                }
+            });
+            Thread database = Thread.ofVirtual().name(DB_PROBE).start(() -> jdbcTemplate.queryForObject("SELECT 1", Integer.class));
+            control.join();
+            database.join();
+            // JFR streams events in chunks, give the last one time to arrive
+            sleepQuietly(2_000);
+
+            boolean detected = probeEvents.containsKey(CONTROL_PROBE);
+            long dbPinned = probeEvents.getOrDefault(DB_PROBE, new LongAdder()).sum();
+            if (!detected) {
+                log.info("Pinning self-test: a sleeping synchronized block did not pin, this JDK does not pin on monitors");
+            } else if (dbPinned > 0) {
+                log.warn("Pinning self-test: a database round trip pinned its carrier {} times", dbPinned);
+            } else {
+                log.info("Pinning self-test: detection works, database round trip did not pin for over {} ms", threshold.toMillis());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.warn("Pinning self-test failed", e);
+        }
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public static final class Site {
+        private final String location;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+
+        private Site(String location) {
+            this.location = location;
+        }
+
+        public String getLocation() {
+            return location;
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public long getTotalNanos() {
+            return nanos.sum();
+        }
+    }
+}
@@ -1,20 +1,31 @@
 package com.sravan.shipment.controller;
 
 import com.sravan.shipment.authentication.exception.BusinessException;
+import com.sravan.shipment.dto.ShipmentChangesResponse;
 import com.sravan.shipment.dto.ShipmentFilterRequest;
+import com.sravan.shipment.dto.ShipmentImportReport;
+import com.sravan.shipment.dto.ShipmentDeliveredRequest;
+import com.sravan.shipment.dto.ShipmentFacetsResponse;
+import com.sravan.shipment.dto.ShipmentPageResponse;
+import com.sravan.shipment.dto.ShipmentPatchRequest;
 import com.sravan.shipment.dto.ShipmentRequest;
 import com.sravan.shipment.dto.ShipmentResponse;
+import com.sravan.shipment.dto.ShipmentStatsResponse;
+import com.sravan.shipment.dto.ShipmentUpdateReport;
+import com.sravan.shipment.service.ShipmentExportService;
+import com.sravan.shipment.service.ShipmentImportService;
 import com.sravan.shipment.service.ShipmentService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.annotation.CurrentSecurityContext;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.util.zip.GZIPOutputStream;
 import java.util.List;
 
 @RestController
@@ -26,9 +37,9 @@ public class ShipmentController {
 
     @PostMapping
     public ShipmentResponse addShipment(@Valid @RequestBody ShipmentRequest request,
-                                        @CurrentSecurityContext(expression = "authentication?.name") String email) {
+                                        @CurrentSecurityContext(expression = "authentication?.principal?.userId") String userId) {
         try {
-            return shipmentService.addShipment(email, request);
+            return shipmentService.addShipment(userId, request);
         } catch (Exception e) {
             throw new BusinessException("Shipment could not be created. Try later", HttpStatus.BAD_REQUEST);
         }
@@ -36,35 +47,122 @@ public class ShipmentController {
 
     @GetMapping("/{id}")
     public ShipmentResponse getShipmentById(@PathVariable long id,
-                                            @CurrentSecurityContext(expression = "authentication?.name") String email) {
-        return shipmentService.getShipment(email, id);
+                                            @CurrentSecurityContext(expression = "authentication?.principal?.userId") String userId) {
+        return shipmentService.getShipment(userId, id);
     }
 
     @GetMapping
+    public ShipmentPageResponse getShipments(@RequestParam(required = false) String cursor,
+                                             @RequestParam(required = false) Integer size,
+                                             @CurrentSecurityContext(expression = "authentication?.principal?.userId") String userId) {
+        return shipmentService.getShipmentsPage(userId, cursor, size);
+    }
+
+    // Unbounded listing, kept for clients that still page on their side
+    @GetMapping(params = "unpaged=true")
     public List<ShipmentResponse> getAllShipments(
-            @CurrentSecurityContext(expression = "authentication?.name") String email) {
-        return shipmentService.getAllShipments(email);
+            @CurrentSecurityContext(expression = "authentication?.principal?.userId") String userId) {
+        return shipmentService.getAllShipments(userId);
     }
+
     @PutMapping("/{id}")
     public ShipmentResponse updateShipment(@PathVariable long id,
                                            @Valid @RequestBody ShipmentRequest request,
-                                           @CurrentSecurityContext(expression = "authentication?.name") String email) {
-        return shipmentService.updateShipment(email, id, request);
+                                           @CurrentSecurityContext(expression = "authentication?.principal?.userId") String userId) {
+        return shipmentService.updateShipment(userId, id, request);
+    }
+
+    // Only the fields present in the body are written, without loading the shipment first
+    @PatchMapping("/{id}")
+    public ShipmentUpdateReport patchShipment(@PathVariable long id,
+                                              @Valid @RequestBody ShipmentPatchRequest request,
+                                              @CurrentSecurityContext(expression = "authentication?.principal?.userId") String userId) {
+        return shipmentService.patchShipment(userId, id, request);
+    }
+
+    @PostMapping("/delivered")
+    public ShipmentUpdateReport markDelivered(@Valid @RequestBody ShipmentDeliveredRequest request,
+                                              @CurrentSecurityContext(expression = "authentication?.principal?.userId") String userId) {
+        return shipmentService.markDelivered(userId, request);
     }
 
     @DeleteMapping("/{id}")
     public void deleteShipment(@PathVariable long id,
-                               @CurrentSecurityContext(expression = "authentication?.name") String email) {
-        shipmentService.deleteShipment(email, id);
+                               @CurrentSecurityContext(expression = "authentication?.principal?.userId") String userId) {
+        shipmentService.deleteShipment(userId, id);
     }
 
     @PostMapping("/filter")
     public List<ShipmentResponse> filterShipments(@RequestBody ShipmentFilterRequest request,
-                                                  @CurrentSecurityContext(expression = "authentication?.name") String email) {
+                                                  @CurrentSecurityContext(expression = "authentication?.principal?.userId") String userId) {
         try {
-            return shipmentService.filterShipments(email, request);
+            return shipmentService.filterShipments(userId, request);
+        } catch (BusinessException e) {
+            throw e;
         } catch (Exception e) {
             throw new BusinessException("Something went wrong while filtering shipments. Try later", HttpStatus.BAD_REQUEST);
         }
     }
+
+    // Same filter, rows streamed as NDJSON while they are read, for clients sending Accept: application/x-ndjson
+    @PostMapping(value = "/filter", produces = ShipmentImportService.NDJSON)
+    public void streamFilteredShipments(@RequestBody ShipmentFilterRequest request,
+                                        HttpServletResponse response,
+                                        @CurrentSecurityContext(expression = "authentication?.principal?.userId") String userId) throws IOException {
+        shipmentService.streamFilteredShipments(userId, request, () -> {
+            response.setContentType(ShipmentImportService.NDJSON + ";charset=UTF-8");
+            return response.getOutputStream();
+        });
+    }
+
+    // Counts for the filter screen, computed in SQL without fetching the rows
+    @PostMapping("/filter/facets")
+    public ShipmentFacetsResponse getFacets(@RequestBody ShipmentFilterRequest request,
+                                            @CurrentSecurityContext(expression = "authentication?.principal?.userId") String userId) {
+        return shipmentService.getFacets(userId, request);
+    }
+
+    // Changes after since, oldest first; 410 when since is older than the retained changes
+    @GetMapping("/changes")
+    public ShipmentChangesResponse getChanges(@RequestParam(defaultValue = "0") long since,
+                                              @RequestParam(required = false) Integer limit,
+                                              @CurrentSecurityContext(expression = "authentication?.principal?.userId") String userId) {
+        return shipmentService.getChanges(userId, since, limit);
+    }
+
+    @GetMapping("/stats")
+    public ShipmentStatsResponse getStats(@CurrentSecurityContext(expression = "authentication?.principal?.userId") String userId) {
+        return shipmentService.getStats(userId);
+    }
+
+    @PostMapping("/stats/rebuild")
+    public ShipmentStatsResponse rebuildStats(@CurrentSecurityContext(expression = "authentication?.principal?.userId") String userId) {
+        return shipmentService.rebuildStats(userId);
+    }
+
+    // Streams the request body, so files of any size are imported with flat memory use
+    @PostMapping(value = "/import", consumes = {ShipmentImportService.CSV, ShipmentImportService.NDJSON})
+    public ShipmentImportReport importShipments(HttpServletRequest request,
+                                                @CurrentSecurityContext(expression = "authentication?.principal?.userId") String userId) throws IOException {
+        return shipmentService.importShipments(userId, request.getContentType(), request.getInputStream());
+    }
+
+    @GetMapping("/export")
+    public void exportShipments(@RequestParam(defaultValue = "ndjson") String format,
+                                @RequestParam(defaultValue = "false") boolean gzip,
+                                HttpServletResponse response,
+                                @CurrentSecurityContext(expression = "authentication?.principal?.userId") String userId) throws IOException {
+        ShipmentExportService.Format exportFormat = ShipmentExportService.Format.of(format);
+        String filename = "shipments." + exportFormat.getExtension() + (gzip ? ".gz" : "");
+        // headers and the gzip header go out only once the export is admitted, a 503 stays plain JSON
+        shipmentService.exportShipments(userId, exportFormat, () -> {
+            response.setContentType(exportFormat.getContentType() + ";charset=UTF-8");
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"");
+            if (gzip) {
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+                return new GZIPOutputStream(response.getOutputStream(), 64 * 1024);
+            }
+            return response.getOutputStream();
+        });
+    }
 }
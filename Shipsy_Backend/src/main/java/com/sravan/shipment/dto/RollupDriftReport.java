@@ -0,0 +1,20 @@
+package com.sravan.shipment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class RollupDriftReport {
+
+    private int rowsChecked;
+    // "userId/type/month: expected ... but was ..." for every rollup that disagrees with the shipments table
+    private List<String> drift;
+    private boolean repaired;
+}
@@ -0,0 +1,27 @@
+package com.sravan.shipment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One shipment mutation. seq increases by one per event of the same user; delivery is at least
+// once, so consumers skip a seq they have already applied.
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ShipmentChangeEvent {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    private long seq;
+    private String userId;
+    private long shipmentId;
+    private Type type;
+    private long changedAt;
+    // the shipment after the change, null when it was deleted
+    private ShipmentResponse shipment;
+}
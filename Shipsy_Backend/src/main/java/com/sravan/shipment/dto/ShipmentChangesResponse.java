@@ -0,0 +1,22 @@
+package com.sravan.shipment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ShipmentChangesResponse {
+
+    private List<ShipmentChangeEvent> changes;
+    // Pass back as ?since= for the next call
+    private long lastSeq;
+    // The user's latest seq when this was read; take it before a full download to sync from there
+    private long currentSeq;
+    private boolean hasMore;
+}
@@ -0,0 +1,20 @@
+package com.sravan.shipment.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ShipmentDeliveredRequest {
+
+    @NotEmpty(message = "Shipment ids cannot be empty")
+    private List<@NotNull Long> ids;
+}
@@ -0,0 +1,34 @@
+package com.sravan.shipment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ShipmentFacetsResponse {
+
+    private long totalShipments;
+    private long deliveredCount;
+    private long pendingCount;
+    private Map<String, Long> countByType;
+    // ordered by cost, together they cover every shipment matched
+    private List<CostBucket> costBuckets;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class CostBucket {
+        // inclusive, null for the first bucket
+        private Double from;
+        // exclusive, null for the last bucket
+        private Double to;
+        private long count;
+    }
+}
@@ -2,8 +2,8 @@ package com.sravan.shipment.dto;
 
 import lombok.Data;
 
-import lombok.Data;
 import java.time.LocalDate;
+import java.util.List;
 
 @Data
 public class ShipmentFilterRequest {
@@ -14,5 +14,9 @@ public class ShipmentFilterRequest {
     private Double maxCost;
     private String keyword;
     private Boolean isDelivered;
+    // "date", "cost" or "type", optionally followed by ",asc" or ",desc", applied in order
+    private List<String> sort;
+    // response fields to load, e.g. ["shipmentTitle", "cost"]; id is always included, null loads all
+    private List<String> fields;
 }
 
@@ -0,0 +1,33 @@
+package com.sravan.shipment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ShipmentImportReport {
+
+    private long rowsRead;
+    private long rowsImported;
+    private long rowsRejected;
+    // capped at shipments.import.max-reported-errors, errorsTruncated tells if more were dropped
+    private List<RowError> errors;
+    private boolean errorsTruncated;
+    private long elapsedMillis;
+    private double rowsPerSecond;
+    private long peakHeapUsedBytes;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class RowError {
+        private long line;
+        private String message;
+    }
+}
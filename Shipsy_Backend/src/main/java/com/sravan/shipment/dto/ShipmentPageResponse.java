@@ -0,0 +1,20 @@
+package com.sravan.shipment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ShipmentPageResponse {
+
+    private List<ShipmentResponse> items;
+    // Pass back as ?cursor= to fetch the next page, null on the last page
+    private String nextCursor;
+    private boolean hasMore;
+}
@@ -0,0 +1,33 @@
+package com.sravan.shipment.dto;
+
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+// PATCH body, null fields are left unchanged
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ShipmentPatchRequest {
+
+    @Pattern(regexp = "(?s).*\\S.*", message = "Shipment title cannot be empty")
+    private String shipmentTitle;
+
+    private String shipmentDescription;
+
+    @Pattern(regexp = "(?s).*\\S.*", message = "Shipment type cannot be empty")
+    private String shipmentType;
+
+    private Boolean delivered;
+
+    @Positive(message = "Cost must be positive")
+    private Double cost;
+
+    private LocalDate shipmentDate;
+}
@@ -1,5 +1,6 @@
 package com.sravan.shipment.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -11,13 +12,15 @@ import java.time.LocalDate;
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
+// fields left out of a filter projection are null and omitted
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class ShipmentResponse {
 
     private long id;
     private String shipmentTitle;
     private String shipmentDescription;
     private String shipmentType;
-    private boolean delivered;
-    private double cost;
+    private Boolean delivered;
+    private Double cost;
     private LocalDate shipmentDate;
 }
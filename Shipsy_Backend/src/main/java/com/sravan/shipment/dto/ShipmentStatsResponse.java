@@ -0,0 +1,24 @@
+package com.sravan.shipment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ShipmentStatsResponse {
+
+    private long totalShipments;
+    private double totalCost;
+    private long deliveredCount;
+    private long pendingCount;
+    private Map<String, Long> countByType;
+    private Map<String, Double> costByType;
+    // keyed by yyyy-MM, oldest month first
+    private Map<String, Double> costByMonth;
+}
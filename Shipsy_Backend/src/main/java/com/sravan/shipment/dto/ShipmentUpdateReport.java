@@ -0,0 +1,17 @@
+package com.sravan.shipment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ShipmentUpdateReport {
+
+    private long requested;
+    // rows actually changed, ids of other users or already in the target state are not counted
+    private long updated;
+}
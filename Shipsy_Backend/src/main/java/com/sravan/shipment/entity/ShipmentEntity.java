@@ -5,7 +5,11 @@ import lombok.*;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "shipments")
+@Table(name = "shipments", indexes = {
+        @Index(name = "idx_shipments_user_date_id", columnList = "userId, shipmentDate, id"),
+        @Index(name = "idx_shipments_user_type_date", columnList = "userId, shipmentType, shipmentDate"),
+        @Index(name = "idx_shipments_user_cost", columnList = "userId, cost")
+})
 @Getter
 @Setter
 @NoArgsConstructor
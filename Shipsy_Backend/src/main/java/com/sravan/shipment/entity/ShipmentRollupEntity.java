@@ -0,0 +1,46 @@
+package com.sravan.shipment.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+
+@Entity
+@Table(name = "shipment_rollups")
+@IdClass(ShipmentRollupEntity.RollupKey.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ShipmentRollupEntity {
+
+    @Id
+    private String userId;
+
+    @Id
+    private String shipmentType;
+
+    // yyyy-MM of shipmentDate
+    @Id
+    @Column(length = 7)
+    private String periodMonth;
+
+    @Column(nullable = false)
+    private long shipmentCount;
+
+    @Column(nullable = false)
+    private long deliveredCount;
+
+    @Column(nullable = false)
+    private double totalCost;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RollupKey implements Serializable {
+        private String userId;
+        private String shipmentType;
+        private String periodMonth;
+    }
+}
@@ -0,0 +1,25 @@
+package com.sravan.shipment.repository;
+
+import com.sravan.shipment.entity.ShipmentEntity;
+import jakarta.persistence.Tuple;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface ShipmentQueryRepository {
+
+    // Selects only id and the given attributes, each tuple element is aliased by its attribute name
+    // Forward-only, read-only cursor over the matching rows, fetched from the server in chunks
+    Stream<ShipmentEntity> streamAll(Specification<ShipmentEntity> spec, Sort sort);
+
+    List<Tuple> findProjected(Specification<ShipmentEntity> spec, Collection<String> attributes, Sort sort);
+
+    /**
+     * One row per (shipmentType, delivered) with its "count" and a "bucket0".."bucketN" count per
+     * cost range, split at the given ascending edges.
+     */
+    List<Tuple> aggregateFacets(Specification<ShipmentEntity> spec, List<Double> costEdges);
+}
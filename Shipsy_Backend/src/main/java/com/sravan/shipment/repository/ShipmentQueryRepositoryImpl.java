@@ -0,0 +1,102 @@
+package com.sravan.shipment.repository;
+
+import com.sravan.shipment.entity.ShipmentEntity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+@RequiredArgsConstructor
+public class ShipmentQueryRepositoryImpl implements ShipmentQueryRepository {
+
+    private static final int STREAM_FETCH_SIZE = 1000;
+
+    private final EntityManager entityManager;
+
+    @Override
+    public Stream<ShipmentEntity> streamAll(Specification<ShipmentEntity> spec, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ShipmentEntity> query = cb.createQuery(ShipmentEntity.class);
+        Root<ShipmentEntity> root = query.from(ShipmentEntity.class);
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        if (sort.isSorted()) {
+            query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        }
+        return entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    @Override
+    public List<Tuple> findProjected(Specification<ShipmentEntity> spec, Collection<String> attributes, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<ShipmentEntity> root = query.from(ShipmentEntity.class);
+
+        List<Selection<?>> selections = new ArrayList<>(attributes.size() + 1);
+        selections.add(root.get("id").alias("id"));
+        for (String attribute : attributes) {
+            selections.add(root.get(attribute).alias(attribute));
+        }
+        query.multiselect(selections);
+
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        if (sort.isSorted()) {
+            query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        }
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    @Override
+    public List<Tuple> aggregateFacets(Specification<ShipmentEntity> spec, List<Double> costEdges) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<ShipmentEntity> root = query.from(ShipmentEntity.class);
+        Path<String> type = root.get("shipmentType");
+        Path<Boolean> delivered = root.get("delivered");
+        Path<Double> cost = root.get("cost");
+
+        List<Selection<?>> selections = new ArrayList<>(costEdges.size() + 4);
+        selections.add(type.alias("shipmentType"));
+        selections.add(delivered.alias("delivered"));
+        selections.add(cb.count(root).alias("count"));
+        // conditional sums rather than a GROUP BY on the bucket, so the rows stay one per type and status
+        for (int i = 0; i <= costEdges.size(); i++) {
+            Predicate inBucket = cb.and(
+                    i == 0 ? cb.conjunction() : cb.greaterThanOrEqualTo(cost, costEdges.get(i - 1)),
+                    i == costEdges.size() ? cb.conjunction() : cb.lessThan(cost, costEdges.get(i)));
+            Expression<Long> one = cb.<Long>selectCase().when(inBucket, 1L).otherwise(0L);
+            selections.add(cb.sum(one).alias("bucket" + i));
+        }
+        query.multiselect(selections);
+
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.groupBy(type, delivered);
+        return entityManager.createQuery(query).getResultList();
+    }
+}
@@ -1,15 +1,99 @@
 package com.sravan.shipment.repository;
 
 import com.sravan.shipment.entity.ShipmentEntity;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface ShipmentRepository extends JpaRepository<ShipmentEntity, Long>,
-        JpaSpecificationExecutor<ShipmentEntity> {
+        JpaSpecificationExecutor<ShipmentEntity>, ShipmentQueryRepository {
 
-    List<ShipmentEntity> findByUserId(String userId);
+    List<ShipmentEntity> findByUserIdOrderByShipmentDateDescIdDesc(String userId);
+
+    @Query("select distinct s.userId from ShipmentEntity s")
+    List<String> findUserIds();
+
+    Optional<ShipmentEntity> findByIdAndUserId(Long id, String userId);
+
+    // Locks the row until commit, so concurrent updates take their rollup snapshots one after the other
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from ShipmentEntity s where s.id = :id and s.userId = :userId")
+    Optional<ShipmentEntity> findForUpdate(@Param("id") long id, @Param("userId") String userId);
+
+    // Only deletes while the rollup-keyed fields still hold the given values, 0 means gone or changed
+    @Modifying
+    @Query("delete from ShipmentEntity s where s.id = :id and s.userId = :userId " +
+            "and s.shipmentType = :shipmentType and s.shipmentDate = :shipmentDate " +
+            "and s.delivered = :delivered and s.cost = :cost")
+    int deleteMatching(@Param("id") long id,
+                       @Param("userId") String userId,
+                       @Param("shipmentType") String shipmentType,
+                       @Param("shipmentDate") LocalDate shipmentDate,
+                       @Param("delivered") boolean delivered,
+                       @Param("cost") double cost);
+
+    // Forward-only cursor for exports, rows are fetched from the server in chunks of the fetch size
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select s from ShipmentEntity s where s.userId = :userId order by s.shipmentDate desc, s.id desc")
+    Stream<ShipmentEntity> streamByUserId(@Param("userId") String userId);
+
+    @Query("select s.userId as userId, s.shipmentType as shipmentType, " +
+            "year(s.shipmentDate) as year, month(s.shipmentDate) as month, count(s) as shipmentCount, " +
+            "sum(case when s.delivered = true then 1 else 0 end) as deliveredCount, sum(s.cost) as totalCost " +
+            "from ShipmentEntity s where (:userId is null or s.userId = :userId) " +
+            "group by s.userId, s.shipmentType, year(s.shipmentDate), month(s.shipmentDate)")
+    List<ShipmentRollupTotals> aggregateRollups(@Param("userId") String userId);
+
+    // The rows markDelivered will flip, locked so no other request can deliver them first; in id order against deadlocks
+    @Query(value = "SELECT id FROM shipments WHERE user_id = :userId AND id IN (:ids) AND delivered = FALSE " +
+            "ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<Long> lockUndeliveredIds(@Param("userId") String userId, @Param("ids") Collection<Long> ids);
+
+    // Rollup deltas of the rows markDelivered is about to flip, taken in the same transaction
+    @Query("select s.userId as userId, s.shipmentType as shipmentType, " +
+            "year(s.shipmentDate) as year, month(s.shipmentDate) as month, count(s) as shipmentCount, " +
+            "count(s) as deliveredCount, sum(s.cost) as totalCost " +
+            "from ShipmentEntity s where s.userId = :userId and s.id in :ids and s.delivered = false " +
+            "group by s.userId, s.shipmentType, year(s.shipmentDate), month(s.shipmentDate)")
+    List<ShipmentRollupTotals> aggregateUndelivered(@Param("userId") String userId, @Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("update ShipmentEntity s set s.delivered = true " +
+            "where s.userId = :userId and s.id in :ids and s.delivered = false")
+    int markDelivered(@Param("userId") String userId, @Param("ids") Collection<Long> ids);
+
+    // The other filters are part of the query, so the limit counts only rows that pass them too
+    @Query(value = "SELECT id FROM shipments WHERE user_id = :userId " +
+            "AND MATCH(shipment_title, shipment_description) AGAINST(:query IN BOOLEAN MODE) " +
+            "AND (:shipmentType IS NULL OR shipment_type = :shipmentType) " +
+            "AND (:startDate IS NULL OR shipment_date >= :startDate) " +
+            "AND (:endDate IS NULL OR shipment_date <= :endDate) " +
+            "AND (:minCost IS NULL OR cost >= :minCost) " +
+            "AND (:maxCost IS NULL OR cost <= :maxCost) " +
+            "ORDER BY MATCH(shipment_title, shipment_description) AGAINST(:query IN BOOLEAN MODE) DESC, id DESC " +
+            "LIMIT :limit", nativeQuery = true)
+    List<Long> searchFullText(@Param("userId") String userId,
+                              @Param("query") String query,
+                              @Param("shipmentType") String shipmentType,
+                              @Param("startDate") LocalDate startDate,
+                              @Param("endDate") LocalDate endDate,
+                              @Param("minCost") Double minCost,
+                              @Param("maxCost") Double maxCost,
+                              @Param("limit") int limit);
 }
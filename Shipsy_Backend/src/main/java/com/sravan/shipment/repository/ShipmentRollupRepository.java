@@ -0,0 +1,47 @@
+package com.sravan.shipment.repository;
+
+import com.sravan.shipment.entity.ShipmentRollupEntity;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface ShipmentRollupRepository extends JpaRepository<ShipmentRollupEntity, ShipmentRollupEntity.RollupKey> {
+
+    List<ShipmentRollupEntity> findByUserId(String userId);
+
+    // Holds back the user's rollup deltas until the verifying transaction commits
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select r from ShipmentRollupEntity r where r.userId = :userId")
+    List<ShipmentRollupEntity> findForUpdate(@Param("userId") String userId);
+
+    @Query("select distinct r.userId from ShipmentRollupEntity r")
+    List<String> findUserIds();
+
+    @Modifying
+    @Query(value = "INSERT INTO shipment_rollups (user_id, shipment_type, period_month, shipment_count, delivered_count, total_cost) " +
+            "VALUES (:userId, :shipmentType, :periodMonth, :countDelta, :deliveredDelta, :costDelta) " +
+            "ON DUPLICATE KEY UPDATE shipment_count = shipment_count + :countDelta, " +
+            "delivered_count = delivered_count + :deliveredDelta, total_cost = total_cost + :costDelta",
+            nativeQuery = true)
+    void applyDelta(@Param("userId") String userId,
+                    @Param("shipmentType") String shipmentType,
+                    @Param("periodMonth") String periodMonth,
+                    @Param("countDelta") long countDelta,
+                    @Param("deliveredDelta") long deliveredDelta,
+                    @Param("costDelta") double costDelta);
+
+    @Modifying
+    @Query("delete from ShipmentRollupEntity r where r.userId = :userId")
+    void deleteByUserId(@Param("userId") String userId);
+
+    // Rollups with nothing left in them, a concurrent delta that made one non-empty keeps it
+    @Modifying
+    @Query("delete from ShipmentRollupEntity r where r.userId = :userId " +
+            "and r.shipmentCount = 0 and r.deliveredCount = 0 and abs(r.totalCost) <= :tolerance")
+    int deleteEmpty(@Param("userId") String userId, @Param("tolerance") double tolerance);
+}
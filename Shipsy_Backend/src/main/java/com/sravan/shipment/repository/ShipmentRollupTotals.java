@@ -0,0 +1,12 @@
+package com.sravan.shipment.repository;
+
+// Row of the GROUP BY used to recompute shipment_rollups from the shipments table
+public interface ShipmentRollupTotals {
+    String getUserId();
+    String getShipmentType();
+    Integer getYear();
+    Integer getMonth();
+    Long getShipmentCount();
+    Long getDeliveredCount();
+    Double getTotalCost();
+}
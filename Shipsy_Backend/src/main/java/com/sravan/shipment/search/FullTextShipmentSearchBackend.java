@@ -0,0 +1,32 @@
+package com.sravan.shipment.search;
+
+import com.sravan.shipment.repository.ShipmentRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * MySQL FULLTEXT search in boolean mode, ranked by MATCH relevance. Every term is required and
+ * matched as a prefix. Terms shorter than innodb_ft_min_token_size or in the stopword list are ignored by MySQL.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shipments.search.backend", havingValue = "fulltext")
+public class FullTextShipmentSearchBackend implements ShipmentSearchBackend {
+
+    private final ShipmentRepository shipmentRepository;
+
+    @Override
+    public List<Long> search(String userId, String keyword, SearchCriteria criteria, int limit) {
+        List<String> terms = SearchTokenizer.tokenize(keyword);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        String booleanQuery = terms.stream().map(term -> "+" + term + "*").collect(Collectors.joining(" "));
+        return shipmentRepository.searchFullText(userId, booleanQuery, criteria.shipmentType(), criteria.startDate(),
+                criteria.endDate(), criteria.minCost(), criteria.maxCost(), limit);
+    }
+}
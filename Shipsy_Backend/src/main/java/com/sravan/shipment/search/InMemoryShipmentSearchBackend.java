@@ -0,0 +1,254 @@
+package com.sravan.shipment.search;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sravan.shipment.entity.ShipmentEntity;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-process inverted index with one postings table per user. A user's index is built from the
+ * database on first use and then kept in sync by ShipmentServiceImpl on add, update and delete,
+ * once the write has committed. Terms are kept sorted so a query term matches every indexed term
+ * it is a prefix of.
+ *
+ * <p>Indexes are held in a cache bounded by the shipments in them, counted when an index is built,
+ * and dropped once unused for idle-eviction; an evicted user's index is built again on next use.
+ */
+@Component
+@ConditionalOnProperty(name = "shipments.search.backend", havingValue = "memory")
+public class InMemoryShipmentSearchBackend implements ShipmentSearchBackend {
+
+    private static final int TITLE_WEIGHT = 3;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Cache<String, UserIndex> indexes;
+
+    public InMemoryShipmentSearchBackend(JdbcTemplate jdbcTemplate,
+                                         MeterRegistry meterRegistry,
+                                         @Value("${shipments.search.memory.max-documents:1000000}") long maxDocuments,
+                                         @Value("${shipments.search.memory.idle-eviction:30m}") Duration idleEviction) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.indexes = Caffeine.newBuilder()
+                .maximumWeight(maxDocuments)
+                .weigher((String userId, UserIndex index) -> Math.max(1, index.size()))
+                .expireAfterAccess(idleEviction)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, indexes, "shipments.search.indexes");
+    }
+
+    @Override
+    public List<Long> search(String userId, String keyword, SearchCriteria criteria, int limit) {
+        List<String> terms = SearchTokenizer.tokenize(keyword);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        return indexFor(userId).search(terms, criteria, limit);
+    }
+
+    @Override
+    public void index(ShipmentEntity shipment) {
+        String userId = shipment.getUserId();
+        long id = shipment.getId();
+        Map<String, Integer> weights = termWeights(shipment);
+        Attributes fields = Attributes.of(shipment);
+        afterCommit(() -> indexFor(userId).put(id, weights, fields));
+    }
+
+    @Override
+    public void remove(ShipmentEntity shipment) {
+        String userId = shipment.getUserId();
+        long id = shipment.getId();
+        afterCommit(() -> indexFor(userId).remove(id));
+    }
+
+    // Drops now and again after commit, like ShipmentFacetCache.invalidate
+    @Override
+    public void invalidate(String userId) {
+        indexes.invalidate(userId);
+        afterCommit(() -> indexes.invalidate(userId));
+    }
+
+    public void rebuild(String userId, List<ShipmentEntity> shipments) {
+        UserIndex index = new UserIndex();
+        for (ShipmentEntity shipment : shipments) {
+            index.put(shipment.getId(), termWeights(shipment), Attributes.of(shipment));
+        }
+        indexes.put(userId, index);
+    }
+
+    // The index is shared by every request, so a write that rolls back must leave no trace in it
+    private static void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+
+    // Built outside the cache's per-key lock, which would pin a virtual thread for the whole load;
+    // when two requests build the same index at once the first one stored wins
+    private UserIndex indexFor(String userId) {
+        UserIndex index = indexes.getIfPresent(userId);
+        if (index != null) {
+            return index;
+        }
+        UserIndex built = load(userId);
+        UserIndex raced = indexes.asMap().putIfAbsent(userId, built);
+        return raced != null ? raced : built;
+    }
+
+    // Row by row from the result set, no entity list is held while the index is built
+    private UserIndex load(String userId) {
+        UserIndex index = new UserIndex();
+        jdbcTemplate.query("SELECT id, shipment_title, shipment_description, shipment_type, shipment_date, cost " +
+                "FROM shipments WHERE user_id = ?", rs -> {
+            ShipmentEntity shipment = ShipmentEntity.builder()
+                    .shipmentTitle(rs.getString("shipment_title"))
+                    .shipmentDescription(rs.getString("shipment_description"))
+                    .shipmentType(rs.getString("shipment_type"))
+                    .shipmentDate(rs.getDate("shipment_date").toLocalDate())
+                    .cost(rs.getDouble("cost"))
+                    .build();
+            index.put(rs.getLong("id"), termWeights(shipment), Attributes.of(shipment));
+        }, userId);
+        return index;
+    }
+
+    private static Map<String, Integer> termWeights(ShipmentEntity shipment) {
+        Map<String, Integer> weights = new HashMap<>();
+        for (String term : SearchTokenizer.tokenize(shipment.getShipmentTitle())) {
+            weights.merge(term, TITLE_WEIGHT, Integer::sum);
+        }
+        for (String term : SearchTokenizer.tokenize(shipment.getShipmentDescription())) {
+            weights.merge(term, DESCRIPTION_WEIGHT, Integer::sum);
+        }
+        return weights;
+    }
+
+    // The filterable fields of an indexed shipment
+    private record Attributes(String shipmentType, LocalDate shipmentDate, double cost) {
+
+        static Attributes of(ShipmentEntity shipment) {
+            return new Attributes(shipment.getShipmentType(), shipment.getShipmentDate(), shipment.getCost());
+        }
+    }
+
+    private static final class UserIndex {
+
+        private final TreeMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+        private final Map<Long, Map<String, Integer>> documents = new HashMap<>();
+        private final Map<Long, Attributes> attributes = new HashMap<>();
+        // not synchronized: a virtual thread blocked on a monitor pins its carrier
+        private final ReentrantLock lock = new ReentrantLock();
+
+        int size() {
+            lock.lock();
+            try {
+                return documents.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void put(long id, Map<String, Integer> weights, Attributes fields) {
+            lock.lock();
+            try {
+                remove(id);
+                documents.put(id, weights);
+                attributes.put(id, fields);
+                weights.forEach((term, weight) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(id, weight));
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void remove(long id) {
+            lock.lock();
+            try {
+                Map<String, Integer> previous = documents.remove(id);
+                attributes.remove(id);
+                if (previous == null) {
+                    return;
+                }
+                for (String term : previous.keySet()) {
+                    Map<Long, Integer> docs = postings.get(term);
+                    docs.remove(id);
+                    if (docs.isEmpty()) {
+                        postings.remove(term);
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        List<Long> search(List<String> queryTerms, SearchCriteria criteria, int limit) {
+            lock.lock();
+            try {
+                Map<Long, Double> scores = null;
+                for (String queryTerm : queryTerms) {
+                    Map<Long, Double> termScores = scoreTerm(queryTerm);
+                    if (scores == null) {
+                        scores = termScores;
+                    } else {
+                        // every query term must match
+                        scores.keySet().retainAll(termScores.keySet());
+                        scores.replaceAll((id, score) -> score + termScores.get(id));
+                    }
+                    if (scores.isEmpty()) {
+                        return List.of();
+                    }
+                }
+                // filtered before the limit, so it counts only shipments that pass every filter
+                scores.keySet().removeIf(id -> {
+                    Attributes fields = attributes.get(id);
+                    return !criteria.matches(fields.shipmentType(), fields.shipmentDate(), fields.cost());
+                });
+                List<Map.Entry<Long, Double>> ranked = new ArrayList<>(scores.entrySet());
+                ranked.sort(Map.Entry.<Long, Double>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder())));
+                return ranked.stream().limit(limit).map(Map.Entry::getKey).toList();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private Map<Long, Double> scoreTerm(String queryTerm) {
+            Map<Long, Double> scores = new HashMap<>();
+            SortedMap<String, Map<Long, Integer>> matches = postings.subMap(queryTerm, queryTerm + Character.MAX_VALUE);
+            int documentCount = documents.size();
+            matches.forEach((term, docs) -> {
+                double idf = Math.log(1.0 + (double) documentCount / docs.size());
+                // prefix hits rank below whole-word hits
+                double boost = term.equals(queryTerm) ? 1.0 : 0.5;
+                docs.forEach((id, weight) -> scores.merge(id, weight * idf * boost, Math::max));
+            });
+            return scores;
+        }
+    }
+}
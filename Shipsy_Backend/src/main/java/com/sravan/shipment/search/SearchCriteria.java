@@ -0,0 +1,28 @@
+package com.sravan.shipment.search;
+
+import com.sravan.shipment.dto.ShipmentFilterRequest;
+
+import java.time.LocalDate;
+
+/**
+ * The non-keyword filters of a shipment filter, applied by the search backend together with the
+ * keyword so its result limit counts only shipments that pass all of them. Null fields do not filter.
+ */
+public record SearchCriteria(String shipmentType, LocalDate startDate, LocalDate endDate, Double minCost, Double maxCost) {
+
+    public static final SearchCriteria NONE = new SearchCriteria(null, null, null, null, null);
+
+    public static SearchCriteria of(ShipmentFilterRequest request) {
+        return new SearchCriteria(request.getShipmentType(), request.getStartDate(), request.getEndDate(),
+                request.getMinCost(), request.getMaxCost());
+    }
+
+    // Same bounds as ShipmentSpecification, both ends inclusive
+    public boolean matches(String type, LocalDate date, double cost) {
+        return (shipmentType == null || shipmentType.equals(type))
+                && (startDate == null || !date.isBefore(startDate))
+                && (endDate == null || !date.isAfter(endDate))
+                && (minCost == null || cost >= minCost)
+                && (maxCost == null || cost <= maxCost);
+    }
+}
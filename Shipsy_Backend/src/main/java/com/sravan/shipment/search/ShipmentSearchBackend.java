@@ -0,0 +1,25 @@
+package com.sravan.shipment.search;
+
+import com.sravan.shipment.entity.ShipmentEntity;
+
+import java.util.List;
+
+/**
+ * Keyword search over a user's shipment titles and descriptions. Selected with shipments.search.backend;
+ * when none is configured filterShipments falls back to the LIKE specification.
+ */
+public interface ShipmentSearchBackend {
+
+    // Ids of the user's shipments matching every keyword term (terms match as prefixes) and the criteria, best match first
+    List<Long> search(String userId, String keyword, SearchCriteria criteria, int limit);
+
+    default void index(ShipmentEntity shipment) {
+    }
+
+    default void remove(ShipmentEntity shipment) {
+    }
+
+    // Called after writes that bypass index/remove, such as bulk imports
+    default void invalidate(String userId) {
+    }
+}
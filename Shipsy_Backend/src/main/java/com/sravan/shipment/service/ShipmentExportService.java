@@ -0,0 +1,141 @@
+package com.sravan.shipment.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sravan.shipment.authentication.exception.BusinessException;
+import com.sravan.shipment.entity.ShipmentEntity;
+import com.sravan.shipment.repository.ShipmentRepository;
+import jakarta.persistence.EntityManager;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes a user's shipments straight from a database cursor to the response, one row at a time.
+ * Entities are detached once written so the persistence context stays empty, which keeps heap use
+ * independent of the number of rows exported.
+ */
+@Service
+@RequiredArgsConstructor
+public class ShipmentExportService {
+
+    private static final String CSV_HEADER = "id,shipmentTitle,shipmentDescription,shipmentType,delivered,cost,shipmentDate";
+
+    private final ShipmentRepository shipmentRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    @Getter
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public static Format of(String value) {
+            for (Format format : values()) {
+                if (format.extension.equalsIgnoreCase(value)) {
+                    return format;
+                }
+            }
+            throw new BusinessException("Unsupported export format: " + value, HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    // Opens the response body. Called only once a stream is admitted, so a rejection can still be sent as a plain error.
+    @FunctionalInterface
+    public interface OutputStreamSupplier {
+        OutputStream get() throws IOException;
+    }
+
+    @Transactional(readOnly = true)
+    public void export(String userId, Format format, OutputStream out) throws IOException {
+        try (Stream<ShipmentEntity> rows = shipmentRepository.streamByUserId(userId)) {
+            write(format, rows, out);
+        }
+    }
+
+    // Also used for streamed filter results, must run inside the transaction that opened the stream
+    public void write(Format format, Stream<ShipmentEntity> rows, OutputStream out) throws IOException {
+        Iterator<ShipmentEntity> iterator = rows.iterator();
+        if (format == Format.NDJSON) {
+            writeNdjson(iterator, out);
+        } else {
+            writeCsv(iterator, out);
+        }
+    }
+
+    private void writeNdjson(Iterator<ShipmentEntity> rows, OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // rows are newline terminated below, not space separated
+        generator.setRootValueSeparator(new SerializedString(""));
+        while (rows.hasNext()) {
+            ShipmentEntity shipment = rows.next();
+            generator.writeStartObject();
+            generator.writeNumberField("id", shipment.getId());
+            generator.writeStringField("shipmentTitle", shipment.getShipmentTitle());
+            generator.writeStringField("shipmentDescription", shipment.getShipmentDescription());
+            generator.writeStringField("shipmentType", shipment.getShipmentType());
+            generator.writeBooleanField("delivered", shipment.getDelivered());
+            generator.writeNumberField("cost", shipment.getCost());
+            generator.writeStringField("shipmentDate", shipment.getShipmentDate().toString());
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+            entityManager.detach(shipment);
+        }
+        generator.flush();
+    }
+
+    private void writeCsv(Iterator<ShipmentEntity> rows, OutputStream out) throws IOException {
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        while (rows.hasNext()) {
+            ShipmentEntity shipment = rows.next();
+            writer.write(String.valueOf(shipment.getId()));
+            writer.write(',');
+            writer.write(csvField(shipment.getShipmentTitle()));
+            writer.write(',');
+            writer.write(csvField(shipment.getShipmentDescription()));
+            writer.write(',');
+            writer.write(csvField(shipment.getShipmentType()));
+            writer.write(',');
+            writer.write(String.valueOf(shipment.getDelivered()));
+            writer.write(',');
+            writer.write(String.valueOf(shipment.getCost()));
+            writer.write(',');
+            writer.write(shipment.getShipmentDate().toString());
+            writer.write('\n');
+            entityManager.detach(shipment);
+        }
+        writer.flush();
+    }
+
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
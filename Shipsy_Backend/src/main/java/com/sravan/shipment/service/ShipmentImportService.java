@@ -0,0 +1,312 @@
+package com.sravan.shipment.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sravan.shipment.authentication.exception.BusinessException;
+import com.sravan.shipment.changes.ShipmentChangeLog;
+import com.sravan.shipment.dto.ShipmentImportReport;
+import com.sravan.shipment.dto.ShipmentRequest;
+import com.sravan.shipment.entity.ShipmentEntity;
+import com.sravan.shipment.search.ShipmentSearchBackend;
+import com.sravan.shipment.util.CsvRecordReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Streams CSV or NDJSON shipments into the shipments table. Rows are validated like POST /shipments
+ * and written with JDBC batch inserts, one transaction per batch together with the rollup deltas
+ * and change events.
+ * Only the current batch is held in memory, so heap use does not grow with the file.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ShipmentImportService {
+
+    public static final String CSV = "text/csv";
+    public static final String NDJSON = "application/x-ndjson";
+
+    private static final String INSERT_SQL = "INSERT INTO shipments " +
+            "(user_id, shipment_title, shipment_description, shipment_type, delivered, cost, shipment_date) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final List<String> CSV_COLUMNS = List.of(
+            "shipmenttitle", "shipmentdescription", "shipmenttype", "delivered", "cost", "shipmentdate");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ShipmentRollupService rollupService;
+    private final ShipmentChangeLog changeLog;
+    private final Optional<ShipmentSearchBackend> searchBackend;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+
+    @Value("${shipments.import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${shipments.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    public ShipmentImportReport importShipments(String userId, String contentType, InputStream body) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        RowSource source;
+        if (contentType != null && contentType.startsWith(CSV)) {
+            source = csvRows(new CsvRecordReader(reader));
+        } else if (contentType != null && contentType.startsWith(NDJSON)) {
+            source = ndjsonRows(reader);
+        } else {
+            throw new BusinessException("Unsupported import format, use " + CSV + " or " + NDJSON, HttpStatus.UNSUPPORTED_MEDIA_TYPE);
+        }
+        return run(userId, source);
+    }
+
+    private ShipmentImportReport run(String userId, RowSource source) throws IOException {
+        long started = System.nanoTime();
+        long peakHeap = usedHeap();
+        long read = 0;
+        long imported = 0;
+        long rejected = 0;
+        List<ShipmentImportReport.RowError> errors = new ArrayList<>();
+        List<ShipmentEntity> batch = new ArrayList<>(batchSize);
+
+        try {
+            Row row;
+            while ((row = source.next()) != null) {
+                read++;
+                String error = row.error() != null ? row.error() : validate(row.request());
+                if (error != null) {
+                    rejected++;
+                    if (errors.size() < maxReportedErrors) {
+                        errors.add(new ShipmentImportReport.RowError(row.line(), error));
+                    }
+                    continue;
+                }
+                batch.add(toEntity(userId, row.request()));
+                if (batch.size() == batchSize) {
+                    imported += flush(batch);
+                    peakHeap = Math.max(peakHeap, usedHeap());
+                }
+            }
+            imported += flush(batch);
+        } finally {
+            if (imported > 0) {
+                searchBackend.ifPresent(backend -> backend.invalidate(userId));
+            }
+        }
+
+        long elapsedNanos = System.nanoTime() - started;
+        ShipmentImportReport report = ShipmentImportReport.builder()
+                .rowsRead(read)
+                .rowsImported(imported)
+                .rowsRejected(rejected)
+                .errors(errors)
+                .errorsTruncated(rejected > errors.size())
+                .elapsedMillis(elapsedNanos / 1_000_000)
+                .rowsPerSecond(elapsedNanos == 0 ? 0 : imported * 1_000_000_000.0 / elapsedNanos)
+                .peakHeapUsedBytes(Math.max(peakHeap, usedHeap()))
+                .build();
+        log.info("Imported {} of {} shipments for {} in {} ms ({} rows/s)",
+                imported, read, userId, report.getElapsedMillis(), Math.round(report.getRowsPerSecond()));
+        return report;
+    }
+
+    private int flush(List<ShipmentEntity> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            // the generated ids go into the change events
+            GeneratedKeyHolder keys = new GeneratedKeyHolder();
+            jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_SQL, new String[]{"id"}),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            ShipmentEntity shipment = batch.get(i);
+                            ps.setString(1, shipment.getUserId());
+                            ps.setString(2, shipment.getShipmentTitle());
+                            ps.setString(3, shipment.getShipmentDescription());
+                            ps.setString(4, shipment.getShipmentType());
+                            ps.setBoolean(5, shipment.getDelivered());
+                            ps.setDouble(6, shipment.getCost());
+                            ps.setDate(7, Date.valueOf(shipment.getShipmentDate()));
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return batch.size();
+                        }
+                    }, keys);
+            List<Map<String, Object>> generated = keys.getKeyList();
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).setId(((Number) generated.get(i).values().iterator().next()).longValue());
+            }
+            rollupService.addAll(batch);
+            changeLog.recordCreated(batch.get(0).getUserId(), batch);
+        });
+        int written = batch.size();
+        batch.clear();
+        return written;
+    }
+
+    private String validate(ShipmentRequest request) {
+        Set<ConstraintViolation<ShipmentRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private static ShipmentEntity toEntity(String userId, ShipmentRequest request) {
+        return ShipmentEntity.builder()
+                .userId(userId)
+                .shipmentTitle(request.getShipmentTitle())
+                // the column is NOT NULL while the request field is optional
+                .shipmentDescription(request.getShipmentDescription() == null ? "" : request.getShipmentDescription())
+                .shipmentType(request.getShipmentType())
+                .delivered(request.getDelivered())
+                .cost(request.getCost())
+                .shipmentDate(request.getShipmentDate())
+                .build();
+    }
+
+    private RowSource csvRows(CsvRecordReader csv) throws IOException {
+        List<String> header = csv.next();
+        if (header == null) {
+            return () -> null;
+        }
+        Map<String, Integer> positions = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            positions.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        List<String> missing = CSV_COLUMNS.stream().filter(column -> !positions.containsKey(column)).toList();
+        if (!missing.isEmpty()) {
+            throw new BusinessException("CSV header is missing columns: " + missing, HttpStatus.BAD_REQUEST);
+        }
+
+        return () -> {
+            List<String> fields = csv.next();
+            if (fields == null) {
+                return null;
+            }
+            long line = csv.getRecordLine();
+            try {
+                ShipmentRequest request = ShipmentRequest.builder()
+                        .shipmentTitle(field(fields, positions, "shipmenttitle"))
+                        .shipmentDescription(field(fields, positions, "shipmentdescription"))
+                        .shipmentType(field(fields, positions, "shipmenttype"))
+                        .delivered(parseBoolean(field(fields, positions, "delivered")))
+                        .cost(parseCost(field(fields, positions, "cost")))
+                        .shipmentDate(parseDate(field(fields, positions, "shipmentdate")))
+                        .build();
+                return new Row(line, request, null);
+            } catch (IllegalArgumentException e) {
+                return new Row(line, null, e.getMessage());
+            }
+        };
+    }
+
+    private RowSource ndjsonRows(BufferedReader reader) {
+        long[] lineNumber = {0};
+        return () -> {
+            String line;
+            do {
+                line = reader.readLine();
+                if (line == null) {
+                    return null;
+                }
+                lineNumber[0]++;
+            } while (line.isBlank());
+            try {
+                return new Row(lineNumber[0], objectMapper.readValue(line, ShipmentRequest.class), null);
+            } catch (JsonProcessingException e) {
+                return new Row(lineNumber[0], null, "Malformed JSON: " + e.getOriginalMessage());
+            }
+        };
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> positions, String column) {
+        int index = positions.get(column);
+        if (index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static Boolean parseBoolean(String value) {
+        if (value == null) {
+            return null;
+        }
+        if (!value.equalsIgnoreCase("true") && !value.equalsIgnoreCase("false")) {
+            throw new IllegalArgumentException("delivered: must be true or false");
+        }
+        return Boolean.parseBoolean(value);
+    }
+
+    private static double parseCost(String value) {
+        if (value == null) {
+            return 0;
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("cost: not a number");
+        }
+    }
+
+    private static LocalDate parseDate(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("shipmentDate: expected yyyy-MM-dd");
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private record Row(long line, ShipmentRequest request, String error) {
+    }
+
+    @FunctionalInterface
+    private interface RowSource {
+        // null once the input is exhausted
+        Row next() throws IOException;
+    }
+}
@@ -0,0 +1,247 @@
+package com.sravan.shipment.service;
+
+import com.sravan.shipment.dto.RollupDriftReport;
+import com.sravan.shipment.dto.ShipmentStatsResponse;
+import com.sravan.shipment.entity.ShipmentEntity;
+import com.sravan.shipment.entity.ShipmentRollupEntity;
+import com.sravan.shipment.repository.ShipmentRepository;
+import com.sravan.shipment.repository.ShipmentRollupRepository;
+import com.sravan.shipment.repository.ShipmentRollupTotals;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Keeps shipment_rollups in step with the shipments table using delta updates, so stats cost
+ * O(types x months) per user instead of a scan of every shipment.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ShipmentRollupService {
+
+    private static final double COST_TOLERANCE = 0.005;
+
+    private final ShipmentRollupRepository rollupRepository;
+    private final ShipmentRepository shipmentRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${shipments.rollups.repair-drift:true}")
+    private boolean repairDrift;
+
+    public void add(ShipmentEntity shipment) {
+        apply(shipment, 1);
+    }
+
+    public void remove(ShipmentEntity shipment) {
+        apply(shipment, -1);
+    }
+
+    // One delta per (type, month) for a batch of new shipments of the same user
+    public void addAll(List<ShipmentEntity> shipments) {
+        Map<ShipmentRollupEntity.RollupKey, ShipmentRollupEntity> deltas = new HashMap<>();
+        for (ShipmentEntity shipment : shipments) {
+            ShipmentRollupEntity delta = deltas.computeIfAbsent(
+                    new ShipmentRollupEntity.RollupKey(shipment.getUserId(), shipment.getShipmentType(), periodOf(shipment.getShipmentDate())),
+                    key -> ShipmentRollupEntity.builder()
+                            .userId(key.getUserId())
+                            .shipmentType(key.getShipmentType())
+                            .periodMonth(key.getPeriodMonth())
+                            .build());
+            delta.setShipmentCount(delta.getShipmentCount() + 1);
+            delta.setDeliveredCount(delta.getDeliveredCount() + (shipment.getDelivered() ? 1 : 0));
+            delta.setTotalCost(delta.getTotalCost() + shipment.getCost());
+        }
+        for (ShipmentRollupEntity delta : deltas.values()) {
+            rollupRepository.applyDelta(delta.getUserId(), delta.getShipmentType(), delta.getPeriodMonth(),
+                    delta.getShipmentCount(), delta.getDeliveredCount(), delta.getTotalCost());
+        }
+    }
+
+    // Shipments flipped to delivered in bulk, grouped per (type, month)
+    public void addDelivered(List<ShipmentRollupTotals> flipped) {
+        for (ShipmentRollupTotals totals : flipped) {
+            rollupRepository.applyDelta(totals.getUserId(), totals.getShipmentType(),
+                    YearMonth.of(totals.getYear(), totals.getMonth()).toString(), 0, totals.getDeliveredCount(), 0);
+        }
+    }
+
+    private void apply(ShipmentEntity shipment, int sign) {
+        rollupRepository.applyDelta(shipment.getUserId(), shipment.getShipmentType(),
+                periodOf(shipment.getShipmentDate()), sign, shipment.getDelivered() ? sign : 0, sign * shipment.getCost());
+    }
+
+    public ShipmentStatsResponse getStats(String userId) {
+        long total = 0;
+        long delivered = 0;
+        double totalCost = 0;
+        Map<String, Long> countByType = new TreeMap<>();
+        Map<String, Double> costByType = new TreeMap<>();
+        Map<String, Double> costByMonth = new TreeMap<>();
+
+        for (ShipmentRollupEntity rollup : rollupRepository.findByUserId(userId)) {
+            if (rollup.getShipmentCount() == 0) {
+                continue;
+            }
+            total += rollup.getShipmentCount();
+            delivered += rollup.getDeliveredCount();
+            totalCost += rollup.getTotalCost();
+            countByType.merge(rollup.getShipmentType(), rollup.getShipmentCount(), Long::sum);
+            costByType.merge(rollup.getShipmentType(), rollup.getTotalCost(), Double::sum);
+            costByMonth.merge(rollup.getPeriodMonth(), rollup.getTotalCost(), Double::sum);
+        }
+
+        return ShipmentStatsResponse.builder()
+                .totalShipments(total)
+                .totalCost(totalCost)
+                .deliveredCount(delivered)
+                .pendingCount(total - delivered)
+                .countByType(countByType)
+                .costByType(costByType)
+                .costByMonth(costByMonth)
+                .build();
+    }
+
+    @Transactional
+    public void rebuild(String userId) {
+        rollupRepository.deleteByUserId(userId);
+        rollupRepository.flush();
+        rollupRepository.saveAll(recompute(userId).values());
+    }
+
+    @Scheduled(cron = "${shipments.rollups.verify-cron:0 0 3 * * *}")
+    public void scheduledVerify() {
+        RollupDriftReport report = verify();
+        if (report.getDrift().isEmpty()) {
+            log.info("Shipment rollups verified, {} rows consistent", report.getRowsChecked());
+        } else {
+            log.warn("Shipment rollups drifted on {} of {} rows (repaired: {}): {}",
+                    report.getDrift().size(), report.getRowsChecked(), report.isRepaired(), report.getDrift());
+        }
+    }
+
+    // Recomputes every rollup from the shipments table and compares it with the stored one, one user per transaction
+    public RollupDriftReport verify() {
+        Set<String> userIds = new TreeSet<>(rollupRepository.findUserIds());
+        userIds.addAll(shipmentRepository.findUserIds());
+        int rowsChecked = 0;
+        List<String> drift = new ArrayList<>();
+        for (String userId : userIds) {
+            RollupDriftReport report = transactionTemplate.execute(status -> verify(userId));
+            rowsChecked += report.getRowsChecked();
+            drift.addAll(report.getDrift());
+        }
+        return RollupDriftReport.builder()
+                .rowsChecked(rowsChecked)
+                .drift(drift)
+                .repaired(repairDrift && !drift.isEmpty())
+                .build();
+    }
+
+    /**
+     * The user's rollup rows are locked before the shipments are counted, so deltas committed
+     * before are in both and deltas waiting on the lock in neither. Drift is repaired as a delta
+     * too, on top of whatever the row holds, rather than by overwriting it.
+     */
+    private RollupDriftReport verify(String userId) {
+        Map<ShipmentRollupEntity.RollupKey, ShipmentRollupEntity> actual = new HashMap<>();
+        for (ShipmentRollupEntity rollup : rollupRepository.findForUpdate(userId)) {
+            actual.put(keyOf(rollup), rollup);
+        }
+        Map<ShipmentRollupEntity.RollupKey, ShipmentRollupEntity> expected = recompute(userId);
+
+        List<String> drift = new ArrayList<>();
+        int rowsChecked = expected.size() + (int) actual.keySet().stream().filter(key -> !expected.containsKey(key)).count();
+        expected.forEach((key, want) -> {
+            ShipmentRollupEntity have = actual.remove(key);
+            if (have == null || !matches(want, have)) {
+                drift.add(describe(key) + ": expected " + summary(want) + " but was " + (have == null ? "missing" : summary(have)));
+                if (repairDrift) {
+                    correct(want, have);
+                }
+            }
+        });
+        // rollups left over have no shipments behind them, only zeroed rows are expected here
+        actual.forEach((key, have) -> {
+            if (have.getShipmentCount() != 0 || have.getDeliveredCount() != 0 || Math.abs(have.getTotalCost()) > COST_TOLERANCE) {
+                drift.add(describe(key) + ": expected nothing but was " + summary(have));
+                if (repairDrift) {
+                    correct(ShipmentRollupEntity.builder()
+                            .userId(key.getUserId())
+                            .shipmentType(key.getShipmentType())
+                            .periodMonth(key.getPeriodMonth())
+                            .build(), have);
+                }
+            }
+        });
+        if (repairDrift) {
+            rollupRepository.deleteEmpty(userId, COST_TOLERANCE);
+        }
+        return RollupDriftReport.builder()
+                .rowsChecked(rowsChecked)
+                .drift(drift)
+                .repaired(repairDrift && !drift.isEmpty())
+                .build();
+    }
+
+    // Moves the row from what was read to what it should hold
+    private void correct(ShipmentRollupEntity want, ShipmentRollupEntity have) {
+        long count = have == null ? 0 : have.getShipmentCount();
+        long delivered = have == null ? 0 : have.getDeliveredCount();
+        double cost = have == null ? 0 : have.getTotalCost();
+        rollupRepository.applyDelta(want.getUserId(), want.getShipmentType(), want.getPeriodMonth(),
+                want.getShipmentCount() - count, want.getDeliveredCount() - delivered, want.getTotalCost() - cost);
+    }
+
+    private Map<ShipmentRollupEntity.RollupKey, ShipmentRollupEntity> recompute(String userId) {
+        Map<ShipmentRollupEntity.RollupKey, ShipmentRollupEntity> rollups = new HashMap<>();
+        for (ShipmentRollupTotals totals : shipmentRepository.aggregateRollups(userId)) {
+            ShipmentRollupEntity rollup = ShipmentRollupEntity.builder()
+                    .userId(totals.getUserId())
+                    .shipmentType(totals.getShipmentType())
+                    .periodMonth(YearMonth.of(totals.getYear(), totals.getMonth()).toString())
+                    .shipmentCount(totals.getShipmentCount())
+                    .deliveredCount(totals.getDeliveredCount())
+                    .totalCost(totals.getTotalCost())
+                    .build();
+            rollups.put(keyOf(rollup), rollup);
+        }
+        return rollups;
+    }
+
+    private static boolean matches(ShipmentRollupEntity want, ShipmentRollupEntity have) {
+        return want.getShipmentCount() == have.getShipmentCount()
+                && want.getDeliveredCount() == have.getDeliveredCount()
+                && Math.abs(want.getTotalCost() - have.getTotalCost()) <= COST_TOLERANCE;
+    }
+
+    private static ShipmentRollupEntity.RollupKey keyOf(ShipmentRollupEntity rollup) {
+        return new ShipmentRollupEntity.RollupKey(rollup.getUserId(), rollup.getShipmentType(), rollup.getPeriodMonth());
+    }
+
+    private static String describe(ShipmentRollupEntity.RollupKey key) {
+        return key.getUserId() + "/" + key.getShipmentType() + "/" + key.getPeriodMonth();
+    }
+
+    private static String summary(ShipmentRollupEntity rollup) {
+        return "count=" + rollup.getShipmentCount() + ", delivered=" + rollup.getDeliveredCount() + ", cost=" + rollup.getTotalCost();
+    }
+
+    private static String periodOf(LocalDate date) {
+        return YearMonth.from(date).toString();
+    }
+}
@@ -1,20 +1,37 @@
 package com.sravan.shipment.service;
 
+import com.sravan.shipment.dto.ShipmentChangesResponse;
 import com.sravan.shipment.dto.ShipmentFilterRequest;
+import com.sravan.shipment.dto.ShipmentImportReport;
+import com.sravan.shipment.dto.ShipmentDeliveredRequest;
+import com.sravan.shipment.dto.ShipmentFacetsResponse;
+import com.sravan.shipment.dto.ShipmentPageResponse;
+import com.sravan.shipment.dto.ShipmentPatchRequest;
 import com.sravan.shipment.dto.ShipmentRequest;
 import com.sravan.shipment.dto.ShipmentResponse;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import com.sravan.shipment.dto.ShipmentStatsResponse;
+import com.sravan.shipment.dto.ShipmentUpdateReport;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 public interface ShipmentService {
     ShipmentResponse addShipment(String userId, ShipmentRequest request);
     ShipmentResponse updateShipment(String userId, long shipmentId, ShipmentRequest request);
+    ShipmentUpdateReport patchShipment(String userId, long shipmentId, ShipmentPatchRequest request);
+    ShipmentUpdateReport markDelivered(String userId, ShipmentDeliveredRequest request);
     ShipmentResponse getShipment(String userId, long shipmentId);
-//    Page<ShipmentResponse> getAllShipments(String userId, Pageable pageable);
+    ShipmentPageResponse getShipmentsPage(String userId, String cursor, Integer size);
     List<ShipmentResponse> getAllShipments(String userId);
     void deleteShipment(String userId, long shipmentId);
 //    Page<ShipmentResponse> filterShipments(String userId, ShipmentFilterRequest filterRequest, Pageable pageable);
     List<ShipmentResponse> filterShipments(String userId, ShipmentFilterRequest filterRequest);
+    void streamFilteredShipments(String userId, ShipmentFilterRequest filterRequest, ShipmentExportService.OutputStreamSupplier output) throws IOException;
+    ShipmentFacetsResponse getFacets(String userId, ShipmentFilterRequest filterRequest);
+    ShipmentChangesResponse getChanges(String userId, long since, Integer limit);
+    ShipmentStatsResponse getStats(String userId);
+    ShipmentStatsResponse rebuildStats(String userId);
+    ShipmentImportReport importShipments(String userId, String contentType, InputStream body) throws IOException;
+    void exportShipments(String userId, ShipmentExportService.Format format, ShipmentExportService.OutputStreamSupplier output) throws IOException;
 }
@@ -1,31 +1,114 @@
 package com.sravan.shipment.service;
 
 import com.sravan.shipment.authentication.exception.BusinessException;
+import com.sravan.shipment.cache.CachedShipment;
+import com.sravan.shipment.cache.ShipmentFacetCache;
+import com.sravan.shipment.cache.ShipmentReadThroughCache;
+import com.sravan.shipment.changes.ShipmentChangeLog;
+import com.sravan.shipment.dto.ShipmentChangesResponse;
 import com.sravan.shipment.dto.ShipmentFilterRequest;
+import com.sravan.shipment.dto.ShipmentImportReport;
+import com.sravan.shipment.dto.ShipmentDeliveredRequest;
+import com.sravan.shipment.dto.ShipmentFacetsResponse;
+import com.sravan.shipment.dto.ShipmentPageResponse;
+import com.sravan.shipment.dto.ShipmentPatchRequest;
 import com.sravan.shipment.dto.ShipmentRequest;
 import com.sravan.shipment.dto.ShipmentResponse;
+import com.sravan.shipment.dto.ShipmentStatsResponse;
+import com.sravan.shipment.dto.ShipmentUpdateReport;
 import com.sravan.shipment.entity.ShipmentEntity;
 import com.sravan.shipment.repository.ShipmentRepository;
+import com.sravan.shipment.search.SearchCriteria;
+import com.sravan.shipment.search.ShipmentSearchBackend;
 import com.sravan.shipment.specification.ShipmentSpecification;
+import com.sravan.shipment.util.ShipmentCursor;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.Tuple;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Semaphore;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class ShipmentServiceImpl implements ShipmentService {
 
+    private static final Sort LISTING_ORDER = Sort.by(Sort.Order.desc("shipmentDate"), Sort.Order.desc("id"));
+
+    private static final Map<String, String> SORT_KEYS = Map.of(
+            "date", "shipmentDate",
+            "cost", "cost",
+            "type", "shipmentType");
+
+    private static final Set<String> PROJECTABLE_FIELDS = Set.of(
+            "shipmentTitle", "shipmentDescription", "shipmentType", "delivered", "cost", "shipmentDate");
+
     private final ShipmentRepository shipmentRepository;
+    private final Optional<ShipmentSearchBackend> searchBackend;
+    private final ShipmentRollupService rollupService;
+    private final ShipmentImportService importService;
+    private final ShipmentExportService exportService;
+    private final ShipmentUpdateService updateService;
+    private final ShipmentReadThroughCache shipmentCache;
+    private final ShipmentFacetCache facetCache;
+    private final ShipmentChangeLog changeLog;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${shipments.page.default-size:20}")
+    private int defaultPageSize;
+
+    @Value("${shipments.page.max-size:100}")
+    private int maxPageSize;
+
+    @Value("${shipments.changes.page.default-size:500}")
+    private int defaultChangesPageSize;
+
+    @Value("${shipments.changes.page.max-size:1000}")
+    private int maxChangesPageSize;
+
+    @Value("${shipments.search.max-results:1000}")
+    private int maxSearchResults;
+
+    @Value("${shipments.filter.slow-threshold:500ms}")
+    private Duration slowFilterThreshold;
+
+    // Upper bounds of the facet cost buckets, the last bucket is open ended
+    @Value("${shipments.facets.cost-buckets:50,100,500,1000}")
+    private List<Double> costBucketEdges;
+
+    private Semaphore streamPermits;
+
+    @Value("${shipments.stream.max-concurrent:8}")
+    void setMaxConcurrentStreams(int maxConcurrentStreams) {
+        streamPermits = new Semaphore(maxConcurrentStreams);
+    }
 
     @Override
+    @Transactional
     public ShipmentResponse addShipment(String userId, ShipmentRequest request) {
         ShipmentEntity shipment = ShipmentEntity.builder()
                 .userId(userId)
@@ -36,18 +119,22 @@ public class ShipmentServiceImpl implements ShipmentService {
                 .cost(request.getCost())
                 .shipmentDate(request.getShipmentDate())
                 .build();
-        return convertToResponse(shipmentRepository.save(shipment));
+        ShipmentEntity saved = shipmentRepository.save(shipment);
+        rollupService.add(saved);
+        changeLog.recordCreated(userId, List.of(saved));
+        searchBackend.ifPresent(backend -> backend.index(saved));
+        facetCache.invalidate(userId);
+        return convertToResponse(saved);
     }
 
     @Override
+    @Transactional
     public ShipmentResponse updateShipment(String userId, long shipmentId, ShipmentRequest request) {
-        ShipmentEntity shipment = shipmentRepository.findById(shipmentId)
+        // locked, otherwise two concurrent updates would both subtract the same old values from the rollups
+        ShipmentEntity shipment = shipmentRepository.findForUpdate(shipmentId, userId)
                 .orElseThrow(() -> new BusinessException("Shipment not found", HttpStatus.NOT_FOUND));
 
-        if (!shipment.getUserId().equals(userId)) {
-            throw new BusinessException("Unauthorized", HttpStatus.UNAUTHORIZED);
-        }
-
+        rollupService.remove(snapshot(shipment));
         shipment.setShipmentTitle(request.getShipmentTitle());
         shipment.setShipmentDescription(request.getShipmentDescription());
         shipment.setShipmentType(request.getShipmentType());
@@ -55,38 +142,186 @@ public class ShipmentServiceImpl implements ShipmentService {
         shipment.setCost(request.getCost());
         shipment.setShipmentDate(request.getShipmentDate());
 
-        return convertToResponse(shipmentRepository.save(shipment));
+        ShipmentEntity saved = shipmentRepository.save(shipment);
+        rollupService.add(saved);
+        changeLog.recordUpdated(userId, List.of(saved));
+        searchBackend.ifPresent(backend -> backend.index(saved));
+        shipmentCache.invalidate(shipmentId);
+        facetCache.invalidate(userId);
+        return convertToResponse(saved);
+    }
+
+    @Override
+    @Transactional
+    public ShipmentUpdateReport patchShipment(String userId, long shipmentId, ShipmentPatchRequest request) {
+        // scoped by id and user, so another user's shipment reads as missing
+        if (updateService.patch(userId, shipmentId, request) == 0) {
+            throw new BusinessException("Shipment not found", HttpStatus.NOT_FOUND);
+        }
+        changeLog.recordUpdated(userId, List.of(shipmentId));
+        if (ShipmentUpdateService.touchesSearchIndex(request)) {
+            searchBackend.ifPresent(backend -> shipmentRepository.findByIdAndUserId(shipmentId, userId).ifPresent(backend::index));
+        }
+        shipmentCache.invalidate(shipmentId);
+        facetCache.invalidate(userId);
+        return ShipmentUpdateReport.builder().requested(1).updated(1).build();
+    }
+
+    @Override
+    @Transactional
+    public ShipmentUpdateReport markDelivered(String userId, ShipmentDeliveredRequest request) {
+        ShipmentUpdateService.MarkedDelivered delivered = updateService.markDelivered(userId, request.getIds());
+        // only the rows this request flipped, already delivered ones did not change
+        changeLog.recordUpdated(userId, delivered.ids());
+        delivered.ids().forEach(shipmentCache::invalidate);
+        facetCache.invalidate(userId);
+        return delivered.report();
     }
 
     @Override
+    @Transactional(readOnly = true)
     public ShipmentResponse getShipment(String userId, long shipmentId) {
-        ShipmentEntity shipment = shipmentRepository.findById(shipmentId)
+        return shipmentCache.findByIdForUser(shipmentId, userId)
+                .map(CachedShipment::toResponse)
                 .orElseThrow(() -> new BusinessException("Shipment not found", HttpStatus.NOT_FOUND));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ShipmentPageResponse getShipmentsPage(String userId, String cursor, Integer size) {
+        int pageSize = size == null ? defaultPageSize : Math.min(Math.max(size, 1), maxPageSize);
 
-        if (!shipment.getUserId().equals(userId)) {
-            throw new BusinessException("Unauthorized", HttpStatus.UNAUTHORIZED);
+        Specification<ShipmentEntity> spec = Specification.where(ShipmentSpecification.hasUserId(userId));
+        if (cursor != null && !cursor.isEmpty()) {
+            ShipmentCursor position = ShipmentCursor.decode(cursor);
+            spec = spec.and(ShipmentSpecification.before(position.shipmentDate(), position.id()));
         }
-        return convertToResponse(shipment);
+
+        // Fetch one extra row to know whether another page exists without a COUNT query
+        List<ShipmentEntity> rows = shipmentRepository.findBy(spec,
+                query -> query.sortBy(LISTING_ORDER).limit(pageSize + 1).all());
+
+        boolean hasMore = rows.size() > pageSize;
+        List<ShipmentEntity> page = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            ShipmentEntity last = page.get(page.size() - 1);
+            nextCursor = new ShipmentCursor(last.getShipmentDate(), last.getId()).encode();
+        }
+
+        return ShipmentPageResponse.builder()
+                .items(page.stream().map(this::convertToResponse).collect(Collectors.toList()))
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ShipmentResponse> getAllShipments(String userId) {
-        return shipmentRepository.findByUserId(userId)
+        return shipmentRepository.findByUserIdOrderByShipmentDateDescIdDesc(userId)
                 .stream()
                 .map(this::convertToResponse)
-                .sorted(Comparator.comparing(ShipmentResponse::getShipmentDate).reversed())
                 .collect(Collectors.toList());
     }
 
     @Override
+    @Transactional
     public void deleteShipment(String userId, long shipmentId) {
-        ShipmentEntity shipment = shipmentRepository.findById(shipmentId)
-                .orElseThrow(() -> new BusinessException("Shipment not found", HttpStatus.NOT_FOUND));
+        // The rollups need the deleted row's values. A cached copy (usually there after a GET) lets the
+        // DELETE carry them and skip the read; it only matches while those values are current.
+        CachedShipment cached = shipmentCache.peek(shipmentId).orElse(null);
+        if (cached != null && !cached.userId().equals(userId)) {
+            throw new BusinessException("Shipment not found", HttpStatus.NOT_FOUND);
+        }
+        ShipmentEntity removed;
+        if (cached != null && shipmentRepository.deleteMatching(shipmentId, userId, cached.shipmentType(),
+                cached.shipmentDate(), cached.delivered(), cached.cost()) == 1) {
+            removed = cached.toEntity();
+        } else {
+            // no copy or a stale one: the row is locked, so the values read are the ones deleted
+            removed = shipmentRepository.findForUpdate(shipmentId, userId)
+                    .orElseThrow(() -> new BusinessException("Shipment not found", HttpStatus.NOT_FOUND));
+            shipmentRepository.delete(removed);
+        }
+        shipmentCache.invalidate(shipmentId);
+        rollupService.remove(removed);
+        changeLog.recordDeleted(userId, shipmentId);
+        searchBackend.ifPresent(backend -> backend.remove(removed));
+        facetCache.invalidate(userId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ShipmentChangesResponse getChanges(String userId, long since, Integer limit) {
+        int pageSize = limit == null ? defaultChangesPageSize : Math.min(Math.max(limit, 0), maxChangesPageSize);
+        return changeLog.findChanges(userId, Math.max(since, 0), pageSize);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ShipmentStatsResponse getStats(String userId) {
+        return rollupService.getStats(userId);
+    }
+
+    @Override
+    public ShipmentStatsResponse rebuildStats(String userId) {
+        rollupService.rebuild(userId);
+        return rollupService.getStats(userId);
+    }
+
+    @Override
+    public ShipmentImportReport importShipments(String userId, String contentType, InputStream body) throws IOException {
+        try {
+            return importService.importShipments(userId, contentType, body);
+        } finally {
+            // batches commit as they go, so even a failed import may have added rows
+            facetCache.invalidate(userId);
+        }
+    }
+
+    @Override
+    public void exportShipments(String userId, ShipmentExportService.Format format,
+                                ShipmentExportService.OutputStreamSupplier output) throws IOException {
+        // shares the filter streams' limit, an export also holds its connection while the client reads
+        if (!streamPermits.tryAcquire()) {
+            throw new BusinessException("Too many streamed results in progress, retry later", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        try {
+            OutputStream out = output.get();
+            exportService.export(userId, format, out);
+            // finishes a gzip body; skipped on failure, so a broken export does not end as a valid archive
+            out.close();
+        } finally {
+            streamPermits.release();
+        }
+    }
 
-        if (!shipment.getUserId().equals(userId)) {
-            throw new BusinessException("Unauthorized", HttpStatus.UNAUTHORIZED);
+    // Copy of the fields the rollups are keyed and summed on, taken before an update mutates the entity
+    private ShipmentEntity snapshot(ShipmentEntity shipment) {
+        return ShipmentEntity.builder()
+                .userId(shipment.getUserId())
+                .shipmentType(shipment.getShipmentType())
+                .shipmentDate(shipment.getShipmentDate())
+                .delivered(shipment.getDelivered())
+                .cost(shipment.getCost())
+                .build();
+    }
+
+    private static ShipmentResponse convertToResponse(Tuple row, Set<String> fields) {
+        ShipmentResponse.ShipmentResponseBuilder response = ShipmentResponse.builder().id(row.get("id", Long.class));
+        for (String field : fields) {
+            switch (field) {
+                case "shipmentTitle" -> response.shipmentTitle(row.get(field, String.class));
+                case "shipmentDescription" -> response.shipmentDescription(row.get(field, String.class));
+                case "shipmentType" -> response.shipmentType(row.get(field, String.class));
+                case "delivered" -> response.delivered(row.get(field, Boolean.class));
+                case "cost" -> response.cost(row.get(field, Double.class));
+                case "shipmentDate" -> response.shipmentDate(row.get(field, LocalDate.class));
+                default -> throw new IllegalArgumentException(field);
+            }
         }
-        shipmentRepository.delete(shipment);
+        return response.build();
     }
 
     private ShipmentResponse convertToResponse(ShipmentEntity shipment) {
@@ -102,7 +337,90 @@ public class ShipmentServiceImpl implements ShipmentService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ShipmentResponse> filterShipments(String userId, ShipmentFilterRequest filterRequest) {
+        String shape = filterShape(filterRequest);
+        long started = System.nanoTime();
+        List<ShipmentResponse> result = runFilter(userId, filterRequest);
+        long elapsedNanos = System.nanoTime() - started;
+        meterRegistry.timer("shipments.filter", "shape", shape).record(Duration.ofNanos(elapsedNanos));
+        if (elapsedNanos > slowFilterThreshold.toNanos()) {
+            log.warn("Slow shipment filter [{}] via {} returned {} rows in {} ms", shape,
+                    searchBackend.map(backend -> backend.getClass().getSimpleName()).orElse("like"),
+                    result.size(), elapsedNanos / 1_000_000);
+        }
+        return result;
+    }
+
+    private List<ShipmentResponse> runFilter(String userId, ShipmentFilterRequest filterRequest) {
+        Sort sort = filterSort(filterRequest.getSort());
+        Set<String> fields = filterFields(filterRequest.getFields());
+        FilterQuery filter = filterQuery(userId, filterRequest);
+        if (filter.matchesNothing()) {
+            return List.of();
+        }
+        Specification<ShipmentEntity> spec = filter.spec();
+        List<Long> rankedIds = filter.rankedIds();
+
+        List<ShipmentResponse> responses = fields == null
+                ? shipmentRepository.findAll(spec, sort).stream().map(this::convertToResponse).collect(Collectors.toList())
+                : shipmentRepository.findProjected(spec, fields, sort).stream().map(row -> convertToResponse(row, fields)).collect(Collectors.toList());
+        if (rankedIds != null && sort.isUnsorted()) {
+            // keep the search backend's relevance order unless the caller asked for another one
+            Map<Long, Integer> rank = new HashMap<>();
+            for (int i = 0; i < rankedIds.size(); i++) {
+                rank.put(rankedIds.get(i), i);
+            }
+            responses.sort(Comparator.comparing(response -> rank.get(response.getId())));
+        }
+        return responses;
+    }
+
+    /**
+     * Writes the matches as NDJSON while they are read from a database cursor. A slow client slows
+     * the reads down through the blocked socket write instead of making the server buffer the
+     * result. Nothing is buffered, so keyword matches are not put in relevance order: rows follow
+     * the requested sort, or the listing order without one.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void streamFilteredShipments(String userId, ShipmentFilterRequest filterRequest,
+                                        ShipmentExportService.OutputStreamSupplier output) throws IOException {
+        if (filterRequest.getFields() != null) {
+            throw new BusinessException("Field projections are not supported for streamed results", HttpStatus.BAD_REQUEST);
+        }
+        // a stream holds its pooled connection for as long as the client takes to read it
+        if (!streamPermits.tryAcquire()) {
+            throw new BusinessException("Too many streamed results in progress, use the paged filter or retry later",
+                    HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        try {
+            Sort sort = filterSort(filterRequest.getSort());
+            FilterQuery filter = filterQuery(userId, filterRequest);
+            OutputStream out = output.get();
+            if (!filter.matchesNothing()) {
+                try (Stream<ShipmentEntity> rows = shipmentRepository.streamAll(filter.spec(), sort.isSorted() ? sort : LISTING_ORDER)) {
+                    exportService.write(ShipmentExportService.Format.NDJSON, rows, out);
+                }
+            }
+            out.close();
+        } finally {
+            streamPermits.release();
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ShipmentFacetsResponse getFacets(String userId, ShipmentFilterRequest filterRequest) {
+        return facetCache.get(userId, filterRequest, () -> {
+            FilterQuery filter = filterQuery(userId, filterRequest);
+            List<Tuple> rows = filter.matchesNothing() ? List.of() : shipmentRepository.aggregateFacets(filter.spec(), costBucketEdges);
+            return toFacets(rows);
+        });
+    }
+
+    // Shared by the row query and the facet counts, so both always agree
+    private FilterQuery filterQuery(String userId, ShipmentFilterRequest filterRequest) {
         Specification<ShipmentEntity> spec = Specification.where(ShipmentSpecification.hasUserId(userId));
 
         if (filterRequest.getShipmentType() != null) {
@@ -125,14 +443,114 @@ public class ShipmentServiceImpl implements ShipmentService {
             spec = spec.and(ShipmentSpecification.costLTE(filterRequest.getMaxCost()));
         }
 
+        List<Long> rankedIds = null;
         if (filterRequest.getKeyword() != null && !filterRequest.getKeyword().isEmpty()) {
-            spec = spec.and(ShipmentSpecification.titleOrDescContains(filterRequest.getKeyword()));
+            if (searchBackend.isPresent()) {
+                // one past the limit tells a full result from a cut-off one
+                rankedIds = searchBackend.get().search(userId, filterRequest.getKeyword(),
+                        SearchCriteria.of(filterRequest), maxSearchResults + 1);
+                if (rankedIds.size() > maxSearchResults) {
+                    throw new BusinessException("Keyword matches more than " + maxSearchResults
+                            + " shipments, use a more specific keyword or narrow the filters", HttpStatus.BAD_REQUEST);
+                }
+                if (!rankedIds.isEmpty()) {
+                    spec = spec.and(ShipmentSpecification.idIn(rankedIds));
+                }
+            } else {
+                spec = spec.and(ShipmentSpecification.titleOrDescContains(filterRequest.getKeyword()));
+            }
         }
+        return new FilterQuery(spec, rankedIds);
+    }
 
-        return shipmentRepository.findAll(spec)
-                .stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+    private ShipmentFacetsResponse toFacets(List<Tuple> rows) {
+        long total = 0;
+        long delivered = 0;
+        Map<String, Long> countByType = new TreeMap<>();
+        long[] bucketCounts = new long[costBucketEdges.size() + 1];
+        for (Tuple row : rows) {
+            long count = row.get("count", Long.class);
+            total += count;
+            if (row.get("delivered", Boolean.class)) {
+                delivered += count;
+            }
+            countByType.merge(row.get("shipmentType", String.class), count, Long::sum);
+            for (int i = 0; i < bucketCounts.length; i++) {
+                bucketCounts[i] += row.get("bucket" + i, Long.class);
+            }
+        }
+
+        List<ShipmentFacetsResponse.CostBucket> costBuckets = new ArrayList<>(bucketCounts.length);
+        for (int i = 0; i < bucketCounts.length; i++) {
+            costBuckets.add(new ShipmentFacetsResponse.CostBucket(
+                    i == 0 ? null : costBucketEdges.get(i - 1),
+                    i == costBucketEdges.size() ? null : costBucketEdges.get(i),
+                    bucketCounts[i]));
+        }
+        return ShipmentFacetsResponse.builder()
+                .totalShipments(total)
+                .deliveredCount(delivered)
+                .pendingCount(total - delivered)
+                .countByType(countByType)
+                .costBuckets(costBuckets)
+                .build();
+    }
+
+    // Sort keys go into the ORDER BY, id breaks ties so equal keys come back in a stable order
+    private static Sort filterSort(List<String> keys) {
+        if (keys == null || keys.isEmpty()) {
+            return Sort.unsorted();
+        }
+        List<Sort.Order> orders = new ArrayList<>(keys.size() + 1);
+        for (String key : keys) {
+            String[] parts = key.split(",", 2);
+            String property = SORT_KEYS.get(parts[0].trim().toLowerCase(Locale.ROOT));
+            if (property == null) {
+                throw new BusinessException("Unsupported sort key: " + parts[0] + ", use one of " + SORT_KEYS.keySet(), HttpStatus.BAD_REQUEST);
+            }
+            Sort.Direction direction = parts.length == 1 ? Sort.Direction.ASC
+                    : Sort.Direction.fromOptionalString(parts[1].trim())
+                    .orElseThrow(() -> new BusinessException("Unsupported sort direction: " + parts[1], HttpStatus.BAD_REQUEST));
+            orders.add(new Sort.Order(direction, property));
+        }
+        orders.add(Sort.Order.desc("id"));
+        return Sort.by(orders);
+    }
+
+    private static Set<String> filterFields(List<String> fields) {
+        if (fields == null) {
+            return null;
+        }
+        Set<String> selected = new LinkedHashSet<>();
+        for (String field : fields) {
+            if ("id".equals(field)) {
+                continue;
+            }
+            if (!PROJECTABLE_FIELDS.contains(field)) {
+                throw new BusinessException("Unsupported field: " + field, HttpStatus.BAD_REQUEST);
+            }
+            selected.add(field);
+        }
+        return selected;
+    }
+
+    // rankedIds is null unless a search backend ranked the keyword matches
+    private record FilterQuery(Specification<ShipmentEntity> spec, List<Long> rankedIds) {
+
+        boolean matchesNothing() {
+            return rankedIds != null && rankedIds.isEmpty();
+        }
+    }
+
+    // Which criteria were set, never their values, named like SchemaIndexVerifier's filter shapes
+    private static String filterShape(ShipmentFilterRequest filterRequest) {
+        List<String> fields = new ArrayList<>(5);
+        fields.add("user");
+        if (filterRequest.getShipmentType() != null) fields.add("type");
+        if (filterRequest.getStartDate() != null || filterRequest.getEndDate() != null) fields.add("date");
+        if (filterRequest.getMinCost() != null || filterRequest.getMaxCost() != null) fields.add("cost");
+        if (filterRequest.getKeyword() != null && !filterRequest.getKeyword().isEmpty()) fields.add("keyword");
+        return String.join("+", fields);
     }
 
 }
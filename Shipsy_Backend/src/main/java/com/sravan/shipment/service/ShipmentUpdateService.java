@@ -0,0 +1,150 @@
+package com.sravan.shipment.service;
+
+import com.sravan.shipment.authentication.exception.BusinessException;
+import com.sravan.shipment.dto.ShipmentPatchRequest;
+import com.sravan.shipment.dto.ShipmentUpdateReport;
+import com.sravan.shipment.entity.ShipmentEntity;
+import com.sravan.shipment.repository.ShipmentRepository;
+import com.sravan.shipment.repository.ShipmentRollupTotals;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Partial updates that write straight to the shipments table instead of loading the entity, so no
+ * persistence context, dirty check or full-row UPDATE is involved. Callers run these inside their
+ * transaction and take care of the cache and search index.
+ */
+@Service
+@RequiredArgsConstructor
+public class ShipmentUpdateService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ShipmentRepository shipmentRepository;
+    private final ShipmentRollupService rollupService;
+
+    @Value("${shipments.bulk.max-ids:1000}")
+    private int maxBulkIds;
+
+    /**
+     * Writes only the non-null fields of the patch in one UPDATE scoped by id and user. Title and
+     * description changes need no read. Type, date, delivered and cost feed the rollups, so their
+     * previous values are read first and the UPDATE only applies if they are still the same.
+     */
+    public int patch(String userId, long shipmentId, ShipmentPatchRequest patch) {
+        List<String> columns = new ArrayList<>();
+        List<Object> args = new ArrayList<>();
+        set(columns, args, "shipment_title", patch.getShipmentTitle());
+        set(columns, args, "shipment_description", patch.getShipmentDescription());
+        set(columns, args, "shipment_type", patch.getShipmentType());
+        set(columns, args, "delivered", patch.getDelivered());
+        set(columns, args, "cost", patch.getCost());
+        set(columns, args, "shipment_date", patch.getShipmentDate() == null ? null : Date.valueOf(patch.getShipmentDate()));
+        if (columns.isEmpty()) {
+            throw new BusinessException("Nothing to update", HttpStatus.BAD_REQUEST);
+        }
+
+        StringBuilder sql = new StringBuilder("UPDATE shipments SET ")
+                .append(String.join(", ", columns))
+                .append(" WHERE id = ? AND user_id = ?");
+        args.add(shipmentId);
+        args.add(userId);
+
+        if (!touchesRollups(patch)) {
+            return jdbcTemplate.update(sql.toString(), args.toArray());
+        }
+
+        List<ShipmentEntity> current = jdbcTemplate.query(
+                "SELECT shipment_type, shipment_date, delivered, cost FROM shipments WHERE id = ? AND user_id = ?",
+                (rs, rowNum) -> ShipmentEntity.builder()
+                        .userId(userId)
+                        .shipmentType(rs.getString("shipment_type"))
+                        .shipmentDate(rs.getDate("shipment_date").toLocalDate())
+                        .delivered(rs.getBoolean("delivered"))
+                        .cost(rs.getDouble("cost"))
+                        .build(),
+                shipmentId, userId);
+        if (current.isEmpty()) {
+            return 0;
+        }
+        ShipmentEntity before = current.get(0);
+        sql.append(" AND shipment_type = ? AND shipment_date = ? AND delivered = ? AND cost = ?");
+        args.add(before.getShipmentType());
+        args.add(Date.valueOf(before.getShipmentDate()));
+        args.add(before.getDelivered());
+        args.add(before.getCost());
+        if (jdbcTemplate.update(sql.toString(), args.toArray()) == 0) {
+            throw new BusinessException("Shipment was changed by another request, try again", HttpStatus.CONFLICT);
+        }
+
+        ShipmentEntity after = ShipmentEntity.builder()
+                .userId(userId)
+                .shipmentType(patch.getShipmentType() != null ? patch.getShipmentType() : before.getShipmentType())
+                .shipmentDate(patch.getShipmentDate() != null ? patch.getShipmentDate() : before.getShipmentDate())
+                .delivered(patch.getDelivered() != null ? patch.getDelivered() : before.getDelivered())
+                .cost(patch.getCost() != null ? patch.getCost() : before.getCost())
+                .build();
+        rollupService.remove(before);
+        rollupService.add(after);
+        return 1;
+    }
+
+    /**
+     * Flips every listed shipment of the user to delivered with one UPDATE. Ids of other users and
+     * shipments already delivered are skipped and not counted. Returns the ids actually flipped.
+     */
+    public MarkedDelivered markDelivered(String userId, List<Long> ids) {
+        Set<Long> distinct = new LinkedHashSet<>(ids);
+        if (distinct.size() > maxBulkIds) {
+            throw new BusinessException("At most " + maxBulkIds + " shipments can be updated at once", HttpStatus.BAD_REQUEST);
+        }
+
+        List<Long> undelivered = shipmentRepository.lockUndeliveredIds(userId, distinct);
+        if (undelivered.isEmpty()) {
+            return new MarkedDelivered(ShipmentUpdateReport.builder().requested(distinct.size()).updated(0).build(), List.of());
+        }
+        List<ShipmentRollupTotals> flipped = shipmentRepository.aggregateUndelivered(userId, undelivered);
+        long expected = flipped.stream().mapToLong(ShipmentRollupTotals::getDeliveredCount).sum();
+        int updated = shipmentRepository.markDelivered(userId, distinct);
+        if (updated != expected || updated != undelivered.size()) {
+            // another request reverted some of these rows in between, the deltas and events would be off
+            throw new BusinessException("Shipments were changed by another request, try again", HttpStatus.CONFLICT);
+        }
+        rollupService.addDelivered(flipped);
+
+        ShipmentUpdateReport report = ShipmentUpdateReport.builder()
+                .requested(distinct.size())
+                .updated(updated)
+                .build();
+        return new MarkedDelivered(report, undelivered);
+    }
+
+    // The indexed text plus the fields the search backend filters on before applying its limit
+    public static boolean touchesSearchIndex(ShipmentPatchRequest patch) {
+        return patch.getShipmentTitle() != null || patch.getShipmentDescription() != null
+                || patch.getShipmentType() != null || patch.getShipmentDate() != null || patch.getCost() != null;
+    }
+
+    private static boolean touchesRollups(ShipmentPatchRequest patch) {
+        return patch.getShipmentType() != null || patch.getShipmentDate() != null
+                || patch.getDelivered() != null || patch.getCost() != null;
+    }
+
+    public record MarkedDelivered(ShipmentUpdateReport report, List<Long> ids) {
+    }
+
+    private static void set(List<String> columns, List<Object> args, String column, Object value) {
+        if (value != null) {
+            columns.add(column + " = ?");
+            args.add(value);
+        }
+    }
+}
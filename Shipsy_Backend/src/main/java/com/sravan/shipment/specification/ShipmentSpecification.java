@@ -4,6 +4,7 @@ import com.sravan.shipment.entity.ShipmentEntity;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.time.LocalDate;
+import java.util.Collection;
 
 public class ShipmentSpecification {
 
@@ -23,6 +24,10 @@ public class ShipmentSpecification {
                 );
     }
 
+    public static Specification<ShipmentEntity> idIn(Collection<Long> ids) {
+        return (root, query, cb) -> root.get("id").in(ids);
+    }
+
     public static Specification<ShipmentEntity> dateAfter(LocalDate start) {
         return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("shipmentDate"), start);
     }
@@ -39,6 +44,18 @@ public class ShipmentSpecification {
         return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("cost"), maxCost);
     }
 
+    // Keyset predicate for (shipmentDate DESC, id DESC) ordering
+    public static Specification<ShipmentEntity> before(LocalDate shipmentDate, long id) {
+        return (root, query, cb) ->
+                cb.or(
+                        cb.lessThan(root.get("shipmentDate"), shipmentDate),
+                        cb.and(
+                                cb.equal(root.get("shipmentDate"), shipmentDate),
+                                cb.lessThan(root.get("id"), id)
+                        )
+                );
+    }
+
     public static Specification<ShipmentEntity> isDelivered(Boolean delivered) {
         return (root, query, cb) -> cb.equal(root.get("isDelivered"), delivered);
     }
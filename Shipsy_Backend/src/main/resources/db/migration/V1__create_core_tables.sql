@@ -0,0 +1,32 @@
+-- Tables as previously created by hibernate ddl-auto=update.
+-- IF NOT EXISTS lets existing databases adopt this history via baseline-on-migrate.
+
+CREATE TABLE IF NOT EXISTS tbl_users (
+    id                   BIGINT       NOT NULL AUTO_INCREMENT,
+    user_id              VARCHAR(255),
+    name                 VARCHAR(255),
+    email                VARCHAR(255),
+    password             VARCHAR(255),
+    verify_otp           VARCHAR(255),
+    is_account_verified  BOOLEAN DEFAULT FALSE,
+    verify_otp_expire_at BIGINT,
+    reset_otp            VARCHAR(255),
+    reset_otp_expire_at  BIGINT,
+    created_at           DATETIME(6),
+    updated_at           DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_user_id UNIQUE (user_id),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE IF NOT EXISTS shipments (
+    id                   BIGINT       NOT NULL AUTO_INCREMENT,
+    user_id              VARCHAR(255) NOT NULL,
+    shipment_title       VARCHAR(255) NOT NULL,
+    shipment_description TEXT         NOT NULL,
+    shipment_type        VARCHAR(255) NOT NULL,
+    delivered            BIT          NOT NULL,
+    cost                 DOUBLE       NOT NULL,
+    shipment_date        DATE         NOT NULL,
+    PRIMARY KEY (id)
+);
@@ -0,0 +1,6 @@
+-- Every ShipmentSpecification query starts with user_id equality and then
+-- ranges over shipment_date or cost, or narrows by shipment_type.
+
+CREATE INDEX idx_shipments_user_date_id ON shipments (user_id, shipment_date, id);
+CREATE INDEX idx_shipments_user_type_date ON shipments (user_id, shipment_type, shipment_date);
+CREATE INDEX idx_shipments_user_cost ON shipments (user_id, cost);
@@ -0,0 +1,21 @@
+-- Per user, type and month totals maintained incrementally by ShipmentRollupService.
+
+CREATE TABLE shipment_rollups (
+    user_id         VARCHAR(255) NOT NULL,
+    shipment_type   VARCHAR(255) NOT NULL,
+    period_month    VARCHAR(7)   NOT NULL,
+    shipment_count  BIGINT       NOT NULL,
+    delivered_count BIGINT       NOT NULL,
+    total_cost      DOUBLE       NOT NULL,
+    PRIMARY KEY (user_id, shipment_type, period_month)
+);
+
+INSERT INTO shipment_rollups (user_id, shipment_type, period_month, shipment_count, delivered_count, total_cost)
+SELECT user_id,
+       shipment_type,
+       CONCAT(YEAR(shipment_date), '-', LPAD(MONTH(shipment_date), 2, '0')),
+       COUNT(*),
+       SUM(CASE WHEN delivered THEN 1 ELSE 0 END),
+       SUM(cost)
+FROM shipments
+GROUP BY user_id, shipment_type, CONCAT(YEAR(shipment_date), '-', LPAD(MONTH(shipment_date), 2, '0'));
@@ -0,0 +1,17 @@
+-- Outbound OTP mail, written in the same transaction as the OTP and delivered by MailOutboxDispatcher.
+
+CREATE TABLE mail_outbox (
+    id              BIGINT       NOT NULL AUTO_INCREMENT,
+    mail_type       VARCHAR(32)  NOT NULL,
+    recipient       VARCHAR(255) NOT NULL,
+    otp             VARCHAR(16),
+    status          VARCHAR(16)  NOT NULL,
+    attempts        INT          NOT NULL,
+    next_attempt_at BIGINT       NOT NULL,
+    last_error      VARCHAR(1000),
+    created_at      BIGINT       NOT NULL,
+    sent_at         BIGINT,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_mail_outbox_status_next_attempt ON mail_outbox (status, next_attempt_at);
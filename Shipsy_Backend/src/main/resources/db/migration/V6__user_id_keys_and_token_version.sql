@@ -0,0 +1,14 @@
+-- Tokens carry the user's UUID and a version; bumping the version revokes the tokens issued before.
+ALTER TABLE tbl_users ADD COLUMN token_version INT NOT NULL DEFAULT 0;
+
+-- Users created before user_id was always assigned get one now
+UPDATE tbl_users SET user_id = UUID() WHERE user_id IS NULL;
+
+-- Shipments and their rollups were owned by the email, move them to the immutable user_id
+UPDATE shipments
+SET user_id = (SELECT u.user_id FROM tbl_users u WHERE u.email = shipments.user_id)
+WHERE user_id IN (SELECT email FROM tbl_users);
+
+UPDATE shipment_rollups
+SET user_id = (SELECT u.user_id FROM tbl_users u WHERE u.email = shipment_rollups.user_id)
+WHERE user_id IN (SELECT email FROM tbl_users);
@@ -0,0 +1,12 @@
+-- Revoked sessions and rotated refresh tokens, kept until the tokens they cover have expired.
+
+CREATE TABLE revoked_tokens (
+    token_id   VARCHAR(64) NOT NULL,
+    kind       VARCHAR(16) NOT NULL,
+    revoked_at BIGINT      NOT NULL,
+    expires_at BIGINT      NOT NULL,
+    PRIMARY KEY (token_id)
+);
+
+CREATE INDEX idx_revoked_tokens_kind_revoked_at ON revoked_tokens (kind, revoked_at);
+CREATE INDEX idx_revoked_tokens_expires_at ON revoked_tokens (expires_at);
@@ -0,0 +1,39 @@
+-- Change events for shipment mutations, written in the mutation's transaction (transactional outbox).
+-- seq numbers a user's events without gaps, published_at is set once ShipmentChangeRelay has sent one.
+
+CREATE TABLE shipment_changes (
+    id                   BIGINT       NOT NULL AUTO_INCREMENT,
+    user_id              VARCHAR(255) NOT NULL,
+    seq                  BIGINT       NOT NULL,
+    shipment_id          BIGINT       NOT NULL,
+    change_type          VARCHAR(16)  NOT NULL,
+    shipment_title       VARCHAR(255),
+    shipment_description TEXT,
+    shipment_type        VARCHAR(255),
+    delivered            BOOLEAN,
+    cost                 DOUBLE,
+    shipment_date        DATE,
+    changed_at           BIGINT       NOT NULL,
+    published_at         BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_shipment_changes_user_seq UNIQUE (user_id, seq)
+);
+
+CREATE INDEX idx_shipment_changes_published_id ON shipment_changes (published_at, id);
+
+-- Last seq handed out per user; the row is locked from the bump until commit
+CREATE TABLE shipment_change_counters (
+    user_id  VARCHAR(255) NOT NULL,
+    last_seq BIGINT       NOT NULL,
+    PRIMARY KEY (user_id)
+);
+
+-- Only the instance holding the lease relays, so events leave in the order they were written
+CREATE TABLE shipment_change_relay (
+    name        VARCHAR(64) NOT NULL,
+    owner       VARCHAR(64),
+    lease_until BIGINT      NOT NULL,
+    PRIMARY KEY (name)
+);
+
+INSERT INTO shipment_change_relay (name, owner, lease_until) VALUES ('shipments', NULL, 0);
@@ -0,0 +1,86 @@
+package com.sravan.shipment.authentication.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sravan.shipment.authentication.ratelimit.RateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitFilterTest {
+
+    @Test
+    void retryAfterRoundsUpToWholeSeconds() throws Exception {
+        // one permit back every 1.5s
+        RateLimitFilter filter = filter("ip:2/3s", "ip:20/10m,email:5/10m");
+        assertThat(login(filter, "a@example.com").getStatus()).isEqualTo(200);
+        assertThat(login(filter, "a@example.com").getStatus()).isEqualTo(200);
+
+        MockHttpServletResponse rejected = login(filter, "a@example.com");
+
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(rejected.getHeader("Retry-After")).isEqualTo("2");
+    }
+
+    @Test
+    void retryAfterJustUnderAWholeSecondIsNotRoundedPastIt() throws Exception {
+        RateLimitFilter filter = filter("ip:1/5s", "ip:20/10m,email:5/10m");
+        login(filter, "a@example.com");
+
+        assertThat(login(filter, "a@example.com").getHeader("Retry-After")).isEqualTo("5");
+    }
+
+    @Test
+    void retryAfterIsAtLeastOneSecond() throws Exception {
+        RateLimitFilter filter = filter("ip:1/200ms", "ip:20/10m,email:5/10m");
+        login(filter, "a@example.com");
+
+        assertThat(login(filter, "a@example.com").getHeader("Retry-After")).isEqualTo("1");
+    }
+
+    @Test
+    void resetPasswordIsLimitedByTheEmailInTheBody() throws Exception {
+        RateLimitFilter filter = filter("ip:30/1m,email:10/1m", "email:2/10m");
+        String body = "{\"newPassword\":\"secret1\",\"otp\":\"123456\",\"email\":\"%s\"}";
+
+        assertThat(post(filter, "/reset-password", "10.0.0.1", body.formatted("victim@example.com")).getStatus()).isEqualTo(200);
+        assertThat(post(filter, "/reset-password", "10.0.0.2", body.formatted("Victim@Example.com")).getStatus()).isEqualTo(200);
+        MockHttpServletResponse rejected = post(filter, "/reset-password", "10.0.0.3", body.formatted("victim@example.com"));
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        // the controller still reads the body of an admitted request
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request("/reset-password", "10.0.0.4", body.formatted("other@example.com")), new MockHttpServletResponse(), chain);
+        assertThat(chain.getRequest().getInputStream().readAllBytes()).asString(StandardCharsets.UTF_8).contains("other@example.com");
+    }
+
+    private static RateLimitFilter filter(String login, String resetPassword) {
+        RateLimiter rateLimiter = new RateLimiter(new SimpleMeterRegistry(), 1000, Duration.ofMinutes(10));
+        return new RateLimitFilter(rateLimiter, new ObjectMapper(), new SimpleMeterRegistry(), true,
+                login, "email:3/10m", "ip:10/10m,email:3/10m", "ip:20/10m,email:5/10m", resetPassword);
+    }
+
+    private static MockHttpServletResponse login(RateLimitFilter filter, String email) throws Exception {
+        return post(filter, "/login", "10.0.0.1", "{\"email\":\"" + email + "\",\"password\":\"secret1\"}");
+    }
+
+    private static MockHttpServletResponse post(RateLimitFilter filter, String path, String ip, String body) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(path, ip, body), response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String path, String ip, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        request.setServletPath(path);
+        request.setRemoteAddr(ip);
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+}
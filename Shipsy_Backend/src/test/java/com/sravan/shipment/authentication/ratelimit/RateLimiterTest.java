@@ -0,0 +1,67 @@
+package com.sravan.shipment.authentication.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimiterTest {
+
+    private static final RateLimit ONE_PER_MINUTE = new RateLimit(1, Duration.ofMinutes(1));
+    private static final RateLimit FIVE_PER_MINUTE = new RateLimit(5, Duration.ofMinutes(1));
+
+    private RateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        rateLimiter = new RateLimiter(new SimpleMeterRegistry(), 1000, Duration.ofMinutes(10));
+    }
+
+    @Test
+    void rejectedRequestTakesNoPermitFromItsOtherLimits() {
+        RateLimiter.Permit ip = new RateLimiter.Permit("login|IP|10.0.0.1", ONE_PER_MINUTE);
+        RateLimiter.Permit email = new RateLimiter.Permit("login|EMAIL|a@example.com", FIVE_PER_MINUTE);
+        assertThat(rateLimiter.tryAcquireAll(List.of(ip))).containsExactly(0);
+
+        long[] waits = rateLimiter.tryAcquireAll(List.of(ip, email));
+
+        assertThat(waits[0]).isPositive();
+        assertThat(waits[1]).isZero();
+        // the email bucket still has all five permits
+        for (int i = 0; i < 5; i++) {
+            assertThat(rateLimiter.tryAcquireAll(List.of(email))).containsExactly(0);
+        }
+        assertThat(rateLimiter.tryAcquireAll(List.of(email))[0]).isPositive();
+    }
+
+    @Test
+    void permitsTakenBeforeALostRaceAreHandedBack() {
+        // both entries see the single permit as available, the second then loses it to the first
+        RateLimiter.Permit other = new RateLimiter.Permit("reset-password|IP|10.0.0.2", FIVE_PER_MINUTE);
+        RateLimiter.Permit contended = new RateLimiter.Permit("reset-password|EMAIL|b@example.com", ONE_PER_MINUTE);
+
+        long[] waits = rateLimiter.tryAcquireAll(List.of(other, contended, contended));
+
+        assertThat(waits[2]).isPositive();
+        assertThat(rateLimiter.tryAcquireAll(List.of(contended))).containsExactly(0);
+        for (int i = 0; i < 5; i++) {
+            assertThat(rateLimiter.tryAcquireAll(List.of(other))).containsExactly(0);
+        }
+    }
+
+    @Test
+    void waitIsReportedForEveryExhaustedLimit() {
+        RateLimiter.Permit ip = new RateLimiter.Permit("login|IP|10.0.0.3", ONE_PER_MINUTE);
+        RateLimiter.Permit email = new RateLimiter.Permit("login|EMAIL|c@example.com", ONE_PER_MINUTE);
+        rateLimiter.tryAcquireAll(List.of(ip, email));
+
+        long[] waits = rateLimiter.tryAcquireAll(List.of(ip, email));
+
+        assertThat(waits[0]).isPositive().isLessThanOrEqualTo(Duration.ofMinutes(1).toNanos());
+        assertThat(waits[1]).isPositive().isLessThanOrEqualTo(Duration.ofMinutes(1).toNanos());
+    }
+}
@@ -0,0 +1,72 @@
+package com.sravan.shipment.authentication.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+
+    private static final long SECOND = Duration.ofSeconds(1).toNanos();
+    private static final RateLimit THREE_PER_3S = new RateLimit(3, Duration.ofSeconds(3));
+
+    @Test
+    void burstUsesEveryPermitThenWaitsOneInterval() {
+        TokenBucket bucket = new TokenBucket(0);
+
+        assertThat(bucket.tryAcquire(THREE_PER_3S, 0)).isZero();
+        assertThat(bucket.tryAcquire(THREE_PER_3S, 0)).isZero();
+        assertThat(bucket.tryAcquire(THREE_PER_3S, 0)).isZero();
+        assertThat(bucket.tryAcquire(THREE_PER_3S, 0)).isEqualTo(SECOND);
+        assertThat(bucket.tryAcquire(THREE_PER_3S, SECOND / 4)).isEqualTo(3 * SECOND / 4);
+    }
+
+    @Test
+    void onePermitComesBackPerInterval() {
+        TokenBucket bucket = new TokenBucket(0);
+        for (int i = 0; i < 3; i++) {
+            bucket.tryAcquire(THREE_PER_3S, 0);
+        }
+
+        assertThat(bucket.tryAcquire(THREE_PER_3S, SECOND)).isZero();
+        assertThat(bucket.tryAcquire(THREE_PER_3S, SECOND)).isEqualTo(SECOND);
+    }
+
+    @Test
+    void idleBucketHoldsNoMoreThanItsPermits() {
+        TokenBucket bucket = new TokenBucket(0);
+        long later = 100 * SECOND;
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(bucket.tryAcquire(THREE_PER_3S, later)).isZero();
+        }
+        assertThat(bucket.tryAcquire(THREE_PER_3S, later)).isEqualTo(SECOND);
+    }
+
+    @Test
+    void waitNanosTakesNothing() {
+        TokenBucket bucket = new TokenBucket(0);
+        bucket.tryAcquire(THREE_PER_3S, 0);
+        bucket.tryAcquire(THREE_PER_3S, 0);
+
+        assertThat(bucket.waitNanos(THREE_PER_3S, 0)).isZero();
+        assertThat(bucket.waitNanos(THREE_PER_3S, 0)).isZero();
+        assertThat(bucket.tryAcquire(THREE_PER_3S, 0)).isZero();
+        assertThat(bucket.waitNanos(THREE_PER_3S, 0)).isEqualTo(SECOND);
+    }
+
+    @Test
+    void releaseGivesThePermitBack() {
+        TokenBucket bucket = new TokenBucket(0);
+        for (int i = 0; i < 3; i++) {
+            bucket.tryAcquire(THREE_PER_3S, 0);
+        }
+
+        bucket.release(THREE_PER_3S);
+
+        assertThat(bucket.waitNanos(THREE_PER_3S, 0)).isZero();
+        assertThat(bucket.tryAcquire(THREE_PER_3S, 0)).isZero();
+        assertThat(bucket.tryAcquire(THREE_PER_3S, 0)).isEqualTo(SECOND);
+    }
+}
@@ -0,0 +1,225 @@
+package com.sravan.shipment.authentication.service;
+
+import com.sravan.shipment.authentication.entity.MailOutboxEntity;
+import com.sravan.shipment.authentication.entity.MailOutboxEntity.MailType;
+import com.sravan.shipment.authentication.entity.MailOutboxEntity.Status;
+import com.sravan.shipment.authentication.repository.MailOutboxRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs MailOutboxDispatcher against the real outbox table on H2 with the SMTP side mocked. Rows are
+ * committed, not rolled back, because the dispatcher claims and updates them on its own workers.
+ */
+@DataJpaTest(showSql = false, properties = {
+        "mail.outbox.max-attempts=3",
+        "mail.outbox.backoff-initial=10s",
+        "mail.outbox.backoff-max=15s",
+        "mail.outbox.lease=1m"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import({MailOutboxDispatcher.class, MailOutboxDispatcherTest.Metrics.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class MailOutboxDispatcherTest {
+
+    private static final long INITIAL_MS = 10_000;
+    private static final long MAX_MS = 15_000;
+    private static final long LEASE_MS = 60_000;
+
+    @Autowired
+    private MailOutboxDispatcher dispatcher;
+
+    @Autowired
+    private MailOutboxRepository outboxRepository;
+
+    @MockitoBean
+    private EmailService emailService;
+
+    // recipients whose next send fails
+    private final Map<String, Exception> smtpFailures = new ConcurrentHashMap<>();
+
+    @TestConfiguration
+    static class Metrics {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @BeforeEach
+    void setUp() throws MessagingException {
+        outboxRepository.deleteAll();
+        smtpFailures.clear();
+        Map<MimeMessage, String> recipients = new ConcurrentHashMap<>();
+        when(emailService.buildOtpEmail(anyString(), anyString())).thenAnswer(invocation -> {
+            MimeMessage message = mock(MimeMessage.class);
+            recipients.put(message, invocation.getArgument(0));
+            return message;
+        });
+        when(emailService.sendAll(anyList())).thenAnswer(invocation -> {
+            List<MimeMessage> messages = invocation.getArgument(0);
+            Map<MimeMessage, Exception> failures = new HashMap<>();
+            for (MimeMessage message : messages) {
+                Exception failure = smtpFailures.get(recipients.get(message));
+                if (failure != null) {
+                    failures.put(message, failure);
+                }
+            }
+            return failures;
+        });
+    }
+
+    @Test
+    void sendsDueMailAndClearsTheOtp() throws InterruptedException {
+        long id = enqueue("due@example.com", Status.PENDING, now());
+
+        MailOutboxEntity mail = dispatchUntil(id, m -> m.getStatus() == Status.SENT);
+
+        assertThat(mail.getAttempts()).isEqualTo(1);
+        assertThat(mail.getOtp()).isNull();
+        assertThat(mail.getSentAt()).isNotNull();
+    }
+
+    @Test
+    void failedSendIsRescheduledWithJitteredExponentialBackoff() throws InterruptedException {
+        smtpFailures.put("flaky@example.com", new MessagingException("421 try again later"));
+        long id = enqueue("flaky@example.com", Status.PENDING, now());
+
+        long before = now();
+        MailOutboxEntity first = dispatchUntil(id, m -> m.getAttempts() == 1);
+        assertThat(first.getStatus()).isEqualTo(Status.PENDING);
+        assertThat(first.getLastError()).isEqualTo("421 try again later");
+        assertThat(first.getOtp()).isEqualTo("123456");
+        // attempt 1 waits between half and all of backoff-initial
+        assertThat(first.getNextAttemptAt()).isBetween(before + INITIAL_MS / 2, now() + INITIAL_MS);
+
+        makeDue(id);
+        before = now();
+        MailOutboxEntity second = dispatchUntil(id, m -> m.getAttempts() == 2);
+        // attempt 2 would wait 2 * 10s, capped at backoff-max
+        assertThat(second.getNextAttemptAt()).isBetween(before + MAX_MS / 2, now() + MAX_MS);
+
+        smtpFailures.clear();
+        makeDue(id);
+        MailOutboxEntity sent = dispatchUntil(id, m -> m.getStatus() == Status.SENT);
+        assertThat(sent.getAttempts()).isEqualTo(3);
+        assertThat(sent.getLastError()).isNull();
+    }
+
+    @Test
+    void givesUpAfterMaxAttempts() throws InterruptedException {
+        smtpFailures.put("bounce@example.com", new MessagingException("550 no such user"));
+        long id = enqueue("bounce@example.com", Status.PENDING, now());
+
+        dispatchUntil(id, m -> m.getAttempts() == 1);
+        makeDue(id);
+        dispatchUntil(id, m -> m.getAttempts() == 2);
+        makeDue(id);
+        MailOutboxEntity mail = dispatchUntil(id, m -> m.getStatus() == Status.FAILED);
+
+        assertThat(mail.getAttempts()).isEqualTo(3);
+        assertThat(mail.getOtp()).isNull();
+        assertThat(mail.getLastError()).isEqualTo("550 no such user");
+    }
+
+    @Test
+    void expiredLeaseIsReclaimedAndSent() throws InterruptedException {
+        // claimed by a worker that died mid-send, its lease ran out a second ago
+        long id = enqueue("orphan@example.com", Status.SENDING, now() - 1000);
+
+        MailOutboxEntity mail = dispatchUntil(id, m -> m.getStatus() == Status.SENT);
+
+        assertThat(mail.getAttempts()).isEqualTo(1);
+    }
+
+    @Test
+    void liveLeaseIsNotClaimedAgain() throws MessagingException, InterruptedException {
+        long leaseUntil = now() + LEASE_MS;
+        long id = enqueue("inflight@example.com", Status.SENDING, leaseUntil);
+
+        dispatcher.wakeUp();
+        Thread.sleep(500);
+
+        MailOutboxEntity mail = outboxRepository.findById(id).orElseThrow();
+        assertThat(mail.getStatus()).isEqualTo(Status.SENDING);
+        assertThat(mail.getNextAttemptAt()).isEqualTo(leaseUntil);
+        verify(emailService, never()).buildOtpEmail(any(), any());
+    }
+
+    @Test
+    void claimLeasesTheRowToOneWorker() {
+        long id = enqueue("race@example.com", Status.PENDING, now());
+        long now = now();
+        List<Status> claimable = List.of(Status.PENDING, Status.SENDING);
+
+        assertThat(outboxRepository.claim(id, claimable, Status.SENDING, now, now + LEASE_MS)).isEqualTo(1);
+        assertThat(outboxRepository.claim(id, claimable, Status.SENDING, now, now + LEASE_MS)).isZero();
+        assertThat(outboxRepository.findById(id).orElseThrow().getNextAttemptAt()).isEqualTo(now + LEASE_MS);
+    }
+
+    private long enqueue(String recipient, Status status, long nextAttemptAt) {
+        return outboxRepository.save(MailOutboxEntity.builder()
+                .mailType(MailType.VERIFY_OTP)
+                .recipient(recipient)
+                .otp("123456")
+                .status(status)
+                .nextAttemptAt(nextAttemptAt)
+                .createdAt(now())
+                .build()).getId();
+    }
+
+    private void makeDue(long id) {
+        MailOutboxEntity mail = outboxRepository.findById(id).orElseThrow();
+        mail.setNextAttemptAt(now());
+        outboxRepository.save(mail);
+    }
+
+    private MailOutboxEntity dispatchUntil(long id, Predicate<MailOutboxEntity> done) throws InterruptedException {
+        dispatcher.wakeUp();
+        long deadline = now() + 5000;
+        while (now() < deadline) {
+            MailOutboxEntity mail = outboxRepository.findById(id).orElseThrow();
+            if (done.test(mail)) {
+                return mail;
+            }
+            Thread.sleep(20);
+        }
+        throw new AssertionError("Outbox row " + id + " did not reach the expected state: "
+                + outboxRepository.findById(id).orElseThrow());
+    }
+
+    private static long now() {
+        return System.currentTimeMillis();
+    }
+}
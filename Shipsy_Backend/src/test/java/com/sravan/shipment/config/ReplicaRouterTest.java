@@ -0,0 +1,196 @@
+package com.sravan.shipment.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Routes real transactions through ReplicaRoutingDataSource, wired the way ReplicaRoutingConfig does
+ * it, to a primary and two replicas that are separate H2 databases. Each database answers
+ * "select name from whoami" with its own name, so a read shows where it was routed.
+ */
+class ReplicaRouterTest {
+
+    private static final Duration WINDOW = Duration.ofMillis(300);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private SwitchableDataSource replica1;
+    private SwitchableDataSource replica2;
+    private ReplicaRouter router;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate writes;
+    private TransactionTemplate reads;
+
+    @BeforeEach
+    void setUp() {
+        replica1 = new SwitchableDataSource(database("replica-1"));
+        replica2 = new SwitchableDataSource(database("replica-2"));
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-1", replica1);
+        replicas.put("replica-2", replica2);
+        router = new ReplicaRouter(database("primary"), replicas, WINDOW);
+        router.bindTo(meterRegistry);
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(router));
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        // the proxy reads the pool defaults on its first connection, at startup before anyone signs in
+        jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+        writes = new TransactionTemplate(transactionManager);
+        reads = new TransactionTemplate(transactionManager);
+        reads.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnlyTransactionsOfASignedInUserAlternateBetweenReplicas() {
+        signIn("alice");
+
+        assertThat(List.of(read(), read(), read(), read()))
+                .containsExactly("replica-1", "replica-2", "replica-1", "replica-2");
+    }
+
+    @Test
+    void writesAndAnonymousReadsGoToThePrimary() {
+        assertThat(read()).isEqualTo("primary");
+
+        signIn("alice");
+        String written = writes.execute(status -> whoami());
+        assertThat(written).isEqualTo("primary");
+    }
+
+    @Test
+    void readsAfterACommittedWriteStayOnThePrimaryForTheWindow() throws InterruptedException {
+        signIn("alice");
+        write();
+
+        assertThat(read()).isEqualTo("primary");
+        assertThat(read()).isEqualTo("primary");
+
+        Thread.sleep(WINDOW.toMillis() + 200);
+        assertThat(read()).startsWith("replica-");
+    }
+
+    @Test
+    void readYourWritesWindowIsPerUser() {
+        signIn("alice");
+        write();
+
+        signIn("bob");
+        assertThat(read()).startsWith("replica-");
+
+        signIn("alice");
+        assertThat(read()).isEqualTo("primary");
+    }
+
+    @Test
+    void rolledBackWriteDoesNotOpenTheWindow() {
+        signIn("alice");
+        writes.executeWithoutResult(status -> {
+            jdbcTemplate.update("UPDATE whoami SET writes = writes + 1");
+            status.setRollbackOnly();
+        });
+
+        assertThat(read()).startsWith("replica-");
+    }
+
+    @Test
+    void unreachableReplicaIsSkippedUntilTheHealthCheckSeesItBack() {
+        signIn("alice");
+        replica1.down = true;
+
+        assertThat(List.of(read(), read(), read())).containsOnly("replica-2");
+        assertThat(meterRegistry.get("db.replicas.healthy").gauge().value()).isEqualTo(1.0);
+
+        // still out of rotation once reachable, until a health check marks it up
+        replica1.down = false;
+        assertThat(List.of(read(), read())).containsOnly("replica-2");
+
+        router.checkReplicas();
+        assertThat(List.of(read(), read())).containsExactlyInAnyOrder("replica-1", "replica-2");
+        assertThat(meterRegistry.get("db.replicas.healthy").gauge().value()).isEqualTo(2.0);
+    }
+
+    @Test
+    void readsFallBackToThePrimaryWhenNoReplicaIsHealthy() {
+        signIn("alice");
+        replica1.down = true;
+        replica2.down = true;
+
+        assertThat(read()).isEqualTo("primary");
+        assertThat(meterRegistry.get("db.routing.connections").tag("target", "primary").tag("reason", "no-replica")
+                .counter().count()).isEqualTo(1.0);
+
+        router.checkReplicas();
+        assertThat(read()).isEqualTo("primary");
+        assertThat(meterRegistry.get("db.replicas.healthy").gauge().value()).isZero();
+    }
+
+    private String read() {
+        return reads.execute(status -> whoami());
+    }
+
+    private void write() {
+        writes.executeWithoutResult(status -> jdbcTemplate.update("UPDATE whoami SET writes = writes + 1"));
+    }
+
+    private String whoami() {
+        return jdbcTemplate.queryForObject("SELECT name FROM whoami", String.class);
+    }
+
+    private static void signIn(String user) {
+        SecurityContextHolder.getContext().setAuthentication(
+                UsernamePasswordAuthenticationToken.authenticated(user, null, List.of()));
+    }
+
+    private static DataSource database(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE whoami (name VARCHAR(32), writes INT)");
+        jdbc.update("INSERT INTO whoami VALUES (?, 0)", name);
+        return dataSource;
+    }
+
+    // A replica that can be taken offline: new connections fail while it is down
+    private static final class SwitchableDataSource extends DelegatingDataSource {
+
+        private volatile boolean down;
+
+        private SwitchableDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (down) {
+                throw new SQLException("Connection refused");
+            }
+            return super.getConnection();
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.sravan.shipment.search;
+
+import com.sravan.shipment.dto.ShipmentPatchRequest;
+import com.sravan.shipment.entity.ShipmentEntity;
+import com.sravan.shipment.service.ShipmentUpdateService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The in-memory backend on an index seeded with rebuild, so no database is needed.
+ */
+class InMemoryShipmentSearchBackendTest {
+
+    private static final String USER = "user-1";
+    private static final LocalDate JAN = LocalDate.of(2025, 1, 15);
+    private static final LocalDate JUN = LocalDate.of(2025, 6, 15);
+
+    private InMemoryShipmentSearchBackend backend;
+
+    @BeforeEach
+    void setUp() {
+        backend = new InMemoryShipmentSearchBackend(null, new SimpleMeterRegistry(), 1000, Duration.ofMinutes(30));
+        backend.rebuild(USER, List.of(
+                shipment(1, "Refrigerated vaccines", "keep cold", "AIR", JAN, 500),
+                shipment(2, "Frozen fish", "refrigerated container", "SEA", JUN, 120),
+                shipment(3, "Furniture", "sofa and chairs", "ROAD", JUN, 80),
+                shipment(4, "Refrigerated cheese", "dairy", "ROAD", JAN, 60)));
+    }
+
+    @Test
+    void titleMatchesRankAboveDescriptionMatchesAndPrefixesMatch() {
+        assertThat(backend.search(USER, "refrigerated", SearchCriteria.NONE, 10)).containsExactly(4L, 1L, 2L);
+        assertThat(backend.search(USER, "refrig", SearchCriteria.NONE, 10)).containsExactlyInAnyOrder(1L, 2L, 4L);
+        assertThat(backend.search(USER, "refrigerated cold", SearchCriteria.NONE, 10)).containsExactly(1L);
+    }
+
+    @Test
+    void criteriaAreAppliedBeforeTheLimit() {
+        // two of the three matches rank above the only ROAD shipment, a limit of 1 must still find it
+        assertThat(backend.search(USER, "refrigerated", criteria("ROAD", null, null, null, null), 1)).containsExactly(4L);
+        assertThat(backend.search(USER, "refrigerated", criteria(null, JUN, JUN, null, null), 1)).containsExactly(2L);
+        assertThat(backend.search(USER, "refrigerated", criteria(null, null, null, 100.0, 500.0), 10)).containsExactly(1L, 2L);
+        assertThat(backend.search(USER, "refrigerated", criteria("SEA", JAN, JAN, null, null), 10)).isEmpty();
+    }
+
+    @Test
+    void reindexedShipmentIsFilteredOnItsNewAttributes() {
+        SearchCriteria sea = criteria("SEA", null, null, null, null);
+        assertThat(backend.search(USER, "refrigerated", sea, 10)).containsExactly(2L);
+
+        backend.index(shipment(4, "Refrigerated cheese", "dairy", "SEA", JUN, 200));
+
+        assertThat(backend.search(USER, "refrigerated", sea, 10)).containsExactlyInAnyOrder(2L, 4L);
+        assertThat(backend.search(USER, "refrigerated", criteria("ROAD", null, null, null, null), 10)).isEmpty();
+        assertThat(backend.search(USER, "refrigerated", criteria(null, null, null, null, 100.0), 10)).isEmpty();
+    }
+
+    @Test
+    void patchOfAnyFilteredFieldReindexes() {
+        assertThat(ShipmentUpdateService.touchesSearchIndex(ShipmentPatchRequest.builder().shipmentType("SEA").build())).isTrue();
+        assertThat(ShipmentUpdateService.touchesSearchIndex(ShipmentPatchRequest.builder().shipmentDate(JUN).build())).isTrue();
+        assertThat(ShipmentUpdateService.touchesSearchIndex(ShipmentPatchRequest.builder().cost(10.0).build())).isTrue();
+        assertThat(ShipmentUpdateService.touchesSearchIndex(ShipmentPatchRequest.builder().shipmentTitle("t").build())).isTrue();
+        assertThat(ShipmentUpdateService.touchesSearchIndex(ShipmentPatchRequest.builder().delivered(true).build())).isFalse();
+    }
+
+    @Test
+    void removedShipmentIsNoLongerFound() {
+        backend.remove(shipment(4, "Refrigerated cheese", "dairy", "ROAD", JAN, 60));
+
+        assertThat(backend.search(USER, "refrigerated", SearchCriteria.NONE, 10)).containsExactly(1L, 2L);
+        assertThat(backend.search(USER, "cheese", SearchCriteria.NONE, 10)).isEmpty();
+    }
+
+    @Test
+    void changesWaitForTheCommitAndARollbackLeavesNoTrace() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            backend.index(shipment(5, "Refrigerated meat", "frozen", "AIR", JUN, 300));
+            backend.remove(shipment(1, "Refrigerated vaccines", "keep cold", "AIR", JAN, 500));
+            assertThat(backend.search(USER, "refrigerated", SearchCriteria.NONE, 10)).containsExactly(4L, 1L, 2L);
+        } finally {
+            // rolled back: the synchronizations are dropped without afterCommit
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertThat(backend.search(USER, "refrigerated", SearchCriteria.NONE, 10)).containsExactly(4L, 1L, 2L);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            backend.index(shipment(5, "Refrigerated meat", "frozen", "AIR", JUN, 300));
+            backend.remove(shipment(1, "Refrigerated vaccines", "keep cold", "AIR", JAN, 500));
+            TransactionSynchronizationUtils.triggerAfterCommit();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertThat(backend.search(USER, "refrigerated", SearchCriteria.NONE, 10)).containsExactly(5L, 4L, 2L);
+    }
+
+    @Test
+    void concurrentWritesAndSearchesKeepTheIndexConsistent() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int base = 100 + t * 1000;
+                tasks.add(pool.submit(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        backend.index(shipment(base + i, "Pallet " + i, "bulk cargo", "SEA", JUN, 10));
+                        if (i % 2 == 1) {
+                            backend.remove(shipment(base + i, "Pallet " + i, "bulk cargo", "SEA", JUN, 10));
+                        }
+                    }
+                }));
+                tasks.add(pool.submit(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        backend.search(USER, "pallet cargo", criteria("SEA", null, null, null, null), 50);
+                    }
+                }));
+            }
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        assertThat(backend.search(USER, "pallet", SearchCriteria.NONE, 10_000)).hasSize(4 * 250);
+        assertThat(backend.search(USER, "refrigerated", SearchCriteria.NONE, 10)).containsExactly(4L, 1L, 2L);
+    }
+
+    private static ShipmentEntity shipment(long id, String title, String description, String type, LocalDate date, double cost) {
+        return ShipmentEntity.builder()
+                .id(id)
+                .userId(USER)
+                .shipmentTitle(title)
+                .shipmentDescription(description)
+                .shipmentType(type)
+                .shipmentDate(date)
+                .cost(cost)
+                .build();
+    }
+
+    private static SearchCriteria criteria(String type, LocalDate start, LocalDate end, Double minCost, Double maxCost) {
+        return new SearchCriteria(type, start, end, minCost, maxCost);
+    }
+}
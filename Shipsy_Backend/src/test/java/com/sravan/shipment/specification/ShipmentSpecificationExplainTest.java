@@ -0,0 +1,117 @@
+package com.sravan.shipment.specification;
+
+import com.sravan.shipment.entity.ShipmentEntity;
+import com.sravan.shipment.repository.ShipmentRepository;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Connection;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static com.sravan.shipment.specification.ShipmentSpecification.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * EXPLAINs the SQL Hibernate generates for each filter combination ShipmentServiceImpl builds and
+ * checks that none of them scans the whole shipments table. H2 has no MySQL access type column;
+ * its equivalent of type != ALL is a plan that enters an index on user_id instead of tableScan.
+ */
+@DataJpaTest(showSql = false, properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.sravan.shipment.specification.ShipmentSpecificationExplainTest$CapturingInspector")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+class ShipmentSpecificationExplainTest {
+
+    private static final String USER = "explain-user";
+    private static final Sort LISTING_ORDER = Sort.by(Sort.Order.desc("shipmentDate"), Sort.Order.desc("id"));
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+    private static final LocalDate END = LocalDate.of(2024, 12, 31);
+
+    // The plan comment H2 prints for the table access, e.g. /* public.idx_shipments_user_cost: user_id = ?1 ... */
+    private static final Pattern ACCESS = Pattern.compile("\"public\"\\.\"shipments\" \"\\w+\"\\s*/\\* ([^:*]+)(?:: ([^*]*))?\\*/");
+
+    @Autowired
+    private ShipmentRepository shipmentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    static Stream<Arguments> filterShapes() {
+        return Stream.of(
+                Arguments.of("user", hasUserId(USER)),
+                Arguments.of("user+type", hasUserId(USER).and(hasShipmentType("AIR"))),
+                Arguments.of("user+date", hasUserId(USER).and(dateAfter(START)).and(dateBefore(END))),
+                Arguments.of("user+type+date", hasUserId(USER).and(hasShipmentType("AIR")).and(dateAfter(START))),
+                Arguments.of("user+cost", hasUserId(USER).and(costGTE(10.0)).and(costLTE(100.0))),
+                Arguments.of("user+type+cost", hasUserId(USER).and(hasShipmentType("AIR")).and(costGTE(10.0))),
+                Arguments.of("user+date+cost", hasUserId(USER).and(dateAfter(START)).and(costLTE(100.0))),
+                Arguments.of("user+keyword", hasUserId(USER).and(titleOrDescContains("fragile"))),
+                Arguments.of("user+keyset", hasUserId(USER).and(before(END, 500L)))
+        );
+    }
+
+    @BeforeEach
+    void seed() {
+        String[] types = {"AIR", "SEA", "ROAD"};
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            rows.add(new Object[]{"user-" + (i % 20), "title " + i, "description " + i, types[i % types.length],
+                    1 + i % 500, START.plusDays(i % 365)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO shipments (user_id, shipment_title, shipment_description, shipment_type, " +
+                "delivered, cost, shipment_date) VALUES (?, ?, ?, ?, FALSE, ?, ?)", rows);
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("filterShapes")
+    void filterQueryUsesAnIndex(String shape, Specification<ShipmentEntity> spec) {
+        CapturingInspector.STATEMENTS.clear();
+        shipmentRepository.findAll(spec, PageRequest.of(0, 20, LISTING_ORDER));
+
+        String sql = CapturingInspector.STATEMENTS.stream()
+                .filter(statement -> statement.startsWith("select"))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No select captured for " + shape));
+        String plan = jdbcTemplate.execute((Connection connection) -> {
+            try (var statement = connection.prepareStatement("EXPLAIN " + sql);
+                 var rs = statement.executeQuery()) {
+                rs.next();
+                return rs.getString(1);
+            }
+        });
+
+        Matcher access = ACCESS.matcher(plan);
+        assertThat(access.find()).as("table access in plan for %s:%n%s", shape, plan).isTrue();
+        assertThat(access.group(1)).as("plan for %s:%n%s", shape, plan).doesNotContain("tableScan");
+        assertThat(access.group(2)).as("index condition for %s:%n%s", shape, plan).contains("user_id = ?");
+    }
+
+    public static class CapturingInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}